@@ -0,0 +1,132 @@
+package sheep.bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * A minimal benchmark harness in the style of JMH, for environments without a build tool.
+ * <p>
+ * Each benchmark is run repeatedly for a number of warmup iterations, whose results are
+ * discarded, then for a number of measurement iterations. Each iteration calls the operation
+ * for a fixed duration and reports throughput in operations per second along with the bytes
+ * allocated by the benchmarking thread per operation.
+ * The results of every operation are consumed so that the JIT cannot eliminate the work.
+ */
+public class Harness {
+    /**
+     * A benchmarked operation.
+     */
+    public interface Operation {
+        /**
+         * Perform one operation.
+         * @return Any result of the operation, consumed to prevent dead code elimination.
+         * @throws Exception If the operation fails, aborting the benchmark.
+         */
+        Object run() throws Exception;
+    }
+
+    /**
+     * The measured performance of a benchmark.
+     * @param name The name of the benchmark.
+     * @param opsPerSecond The mean number of operations per second over the measurement iterations.
+     * @param error The half-width of the 99.9% confidence interval of opsPerSecond.
+     * @param bytesPerOp The mean number of bytes allocated per operation.
+     */
+    public record Result(String name, double opsPerSecond, double error, double bytesPerOp) {
+        @Override
+        public String toString() {
+            return String.format("%-40s %14.3f +- %10.3f ops/s %12.1f B/op",
+                    name, opsPerSecond, error, bytesPerOp);
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private volatile int sink;
+
+    /**
+     * Construct a harness with 5 warmup and 5 measurement iterations of one second each.
+     */
+    public Harness() {
+        this(5, 5, 1000);
+    }
+
+    /**
+     * Construct a harness.
+     * @param warmupIterations The number of iterations to discard.
+     * @param measurementIterations The number of iterations to measure.
+     * @param iterationMillis The duration of each iteration in milliseconds.
+     * Requires:
+     * warmupIterations &gt;= 0, measurementIterations &gt; 0, iterationMillis &gt; 0
+     */
+    public Harness(int warmupIterations, int measurementIterations, long iterationMillis) {
+        if (warmupIterations < 0 || measurementIterations <= 0 || iterationMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "Requires: warmupIterations >= 0, measurementIterations > 0, iterationMillis > 0");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+    }
+
+    /**
+     * Number of bytes allocated so far by the current thread.
+     * @return The allocated bytes counter of the current thread.
+     */
+    public static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Benchmark an operation.
+     * @param name The name to report the benchmark under.
+     * @param operation The operation to benchmark.
+     * @return The measured performance.
+     * @throws Exception If the operation fails.
+     */
+    public Result measure(String name, Operation operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operation);
+        }
+
+        double[] throughput = new double[measurementIterations];
+        long operations = 0;
+        long bytes = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            long start = System.nanoTime();
+            long allocatedBefore = allocatedBytes();
+            long count = iteration(operation);
+            bytes += allocatedBytes() - allocatedBefore;
+            throughput[i] = count / ((System.nanoTime() - start) / 1e9);
+            operations += count;
+        }
+
+        double mean = 0;
+        for (double value : throughput) {
+            mean += value / measurementIterations;
+        }
+        double variance = 0;
+        for (double value : throughput) {
+            variance += (value - mean) * (value - mean) / Math.max(1, measurementIterations - 1);
+        }
+        // 3.29 standard errors approximate a 99.9% confidence interval.
+        double error = 3.29 * Math.sqrt(variance / measurementIterations);
+        return new Result(name, mean, error, (double) bytes / operations);
+    }
+
+    private long iteration(Operation operation) throws Exception {
+        long deadline = System.nanoTime() + iterationNanos;
+        long count = 0;
+        int consumed = 0;
+        do {
+            Object result = operation.run();
+            consumed += result == null ? 0 : System.identityHashCode(result);
+            count++;
+        } while (System.nanoTime() < deadline);
+        sink += consumed;
+        return count;
+    }
+}
@@ -0,0 +1,79 @@
+package sheep.bench;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies with a bounded relative error, in the style of HdrHistogram.
+ * <p>
+ * Values below {@value #EXACT} are counted exactly. Larger values are grouped by their
+ * highest set bit, and each group is split into {@value #SUB_BUCKETS} linear sub-buckets,
+ * so any recorded value is reported to within 1/{@value #SUB_BUCKETS} of its true value.
+ * Recording is lock free and may be done concurrently from many threads.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT = 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts =
+            new AtomicLongArray(EXACT + (Long.SIZE - SUB_BUCKET_BITS - 1) * SUB_BUCKETS);
+
+    /**
+     * Record a value, negative values are recorded as 0.
+     * @param value The value to record, usually in nanoseconds.
+     */
+    public void record(long value) {
+        counts.incrementAndGet(index(Math.max(0, value)));
+    }
+
+    private static int index(long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return EXACT + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * The largest value counted in a bucket.
+     */
+    private static long highestValue(int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        int shift = (index - EXACT) / SUB_BUCKETS + 1;
+        long subBucket = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+        long highest = ((subBucket + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+
+    /**
+     * The number of values recorded.
+     * @return The number of values recorded.
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * The value below which the given fraction of recorded values fall.
+     * @param fraction The percentile as a fraction, e.g. 0.999.
+     * @return The highest value equivalent to the percentile, or 0 if none have been recorded.
+     */
+    public long percentile(double fraction) {
+        long target = Math.max(1, (long) Math.ceil(fraction * count()));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return highestValue(i);
+            }
+        }
+        return 0;
+    }
+}
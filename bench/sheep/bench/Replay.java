@@ -0,0 +1,158 @@
+package sheep.bench;
+
+import sheep.core.UpdateResponse;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+import sheep.sheets.Sheet;
+import sheep.sheets.SheetBuilder;
+import sheep.trace.TraceEvent;
+import sheep.trace.TraceReader;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a trace written by {@link sheep.trace.TraceRecorder} against a new {@link Sheet}
+ * and reports throughput and latency percentiles of updates and reads.
+ * <p>
+ * Run with the compiled sources and benchmarks on the class path:
+ * <pre>
+ * java sheep.bench.Replay trace [speed] [threads]
+ * </pre>
+ * The sheet is first loaded with the snapshot at the start of the trace.
+ * Each call is then issued at its recorded time divided by speed, so a speed of 1
+ * replays at the original rate and 10 replays ten times faster. A speed of 0 issues
+ * every call as soon as a thread is free. Calls are issued by the given number of
+ * threads, which synchronize on the sheet as the graphical interface does.
+ * <p>
+ * When paced, latency is measured from the time a call was due rather than the time
+ * it was issued, so calls delayed behind a slow call count that delay.
+ * Otherwise latency is the service time of each call.
+ */
+public class Replay {
+    private final Sheet sheet;
+    private final List<TraceEvent> events;
+    private final double speed;
+    private final LatencyHistogram updates = new LatencyHistogram();
+    private final LatencyHistogram reads = new LatencyHistogram();
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicLong sink = new AtomicLong();
+
+    private Replay(Sheet sheet, List<TraceEvent> events, double speed) {
+        this.sheet = sheet;
+        this.events = events;
+        this.speed = speed;
+    }
+
+    /**
+     * Replay a trace.
+     * @param args The trace file, then optionally the speed and number of threads.
+     * @throws Exception If the trace cannot be read or replay is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java sheep.bench.Replay trace [speed] [threads]");
+            System.exit(1);
+        }
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        Sheet sheet;
+        List<TraceEvent> events = new ArrayList<>();
+        try (TraceReader reader = new TraceReader(new FileInputStream(args[0]))) {
+            CoreFactory factory = new CoreFactory();
+            sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty())
+                    .empty(reader.getRows(), reader.getColumns());
+            TraceEvent event;
+            while ((event = reader.next()) != null) {
+                if (event.kind() == TraceEvent.Kind.SNAPSHOT) {
+                    sheet.stage(event.row(), event.column(), event.input());
+                } else {
+                    events.add(event);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to read " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        sheet.commit();
+
+        new Replay(sheet, events, speed).run(threads);
+    }
+
+    private void run(int threads) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> replay(start), "replay-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Replayed %d calls in %.3f s (%.1f calls/s) on %d threads at speed %s%n",
+                events.size(), seconds, events.size() / seconds, threads,
+                speed > 0 ? speed + "x" : "unpaced");
+        if (failures.get() > 0) {
+            System.out.printf("%d updates failed%n", failures.get());
+        }
+        System.out.printf("%-8s %10s %12s %12s %12s %12s%n",
+                "Call", "Count", "p50 (us)", "p99 (us)", "p99.9 (us)", "max (us)");
+        report("update", updates);
+        report("read", reads);
+    }
+
+    private static void report(String name, LatencyHistogram histogram) {
+        if (histogram.count() == 0) {
+            return;
+        }
+        System.out.printf("%-8s %10d %12.1f %12.1f %12.1f %12.1f%n", name, histogram.count(),
+                histogram.percentile(0.5) / 1e3, histogram.percentile(0.99) / 1e3,
+                histogram.percentile(0.999) / 1e3, histogram.percentile(1) / 1e3);
+    }
+
+    /**
+     * Issue calls from the shared cursor until the trace is exhausted.
+     */
+    private void replay(long start) {
+        long consumed = 0;
+        int index;
+        while ((index = cursor.getAndIncrement()) < events.size()) {
+            TraceEvent event = events.get(index);
+            long due = System.nanoTime();
+            if (speed > 0) {
+                due = start + (long) (event.nanos() / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            synchronized (sheet) {
+                switch (event.kind()) {
+                    case UPDATE -> {
+                        UpdateResponse response = sheet.update(event.row(), event.column(), event.input());
+                        if (!response.isSuccess()) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    case VALUE -> consumed += sheet.valueAt(event.row(), event.column()).getContent().length();
+                    case FORMULA -> consumed += sheet.formulaAt(event.row(), event.column()).getContent().length();
+                    default -> throw new IllegalStateException("Unexpected event " + event.kind());
+                }
+            }
+            long latency = System.nanoTime() - due;
+            (event.kind() == TraceEvent.Kind.UPDATE ? updates : reads).record(latency);
+        }
+        sink.addAndGet(consumed);
+    }
+}
@@ -0,0 +1,204 @@
+package sheep.bench;
+
+import sheep.core.UpdateResponse;
+import sheep.expression.CoreFactory;
+import sheep.fun.Aggregates;
+import sheep.fun.DeepChain;
+import sheep.fun.FanIn;
+import sheep.fun.FanOut;
+import sheep.fun.Fibonacci;
+import sheep.fun.RandomDag;
+import sheep.fun.Stencil;
+import sheep.fun.Workload;
+import sheep.parsing.Parser;
+import sheep.parsing.SimpleParser;
+import sheep.sheets.CellLocation;
+import sheep.sheets.Sheet;
+import sheep.sheets.SheetBuilder;
+import sheep.ui.textual.TextUI;
+
+import java.io.PrintStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Benchmarks of parsing, updating, recalculating and rendering sheets.
+ * <p>
+ * Run with the compiled sources and benchmarks on the class path:
+ * <pre>
+ * java sheep.bench.SheetBenchmarks [filter]
+ * </pre>
+ * Only benchmarks whose name contains the filter are run.
+ */
+public class SheetBenchmarks {
+    private static final CoreFactory FACTORY = new CoreFactory();
+    private static final Parser PARSER = new SimpleParser(FACTORY);
+
+    private final Harness harness;
+    private final String filter;
+    private final List<Harness.Result> results = new ArrayList<>();
+
+    private SheetBenchmarks(Harness harness, String filter) {
+        this.harness = harness;
+        this.filter = filter;
+    }
+
+    /**
+     * Run the benchmarks.
+     * @param args An optional filter on the benchmark names.
+     * @throws Exception If a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        SheetBenchmarks benchmarks = new SheetBenchmarks(new Harness(), args.length > 0 ? args[0] : "");
+        benchmarks.parsing();
+        benchmarks.updates();
+        benchmarks.workloads();
+        benchmarks.usages();
+        benchmarks.rendering();
+        benchmarks.summary();
+    }
+
+    private void run(String name, Harness.Operation operation) throws Exception {
+        if (!name.contains(filter)) {
+            return;
+        }
+        Harness.Result result = harness.measure(name, operation);
+        results.add(result);
+        System.out.println(result);
+    }
+
+    private void summary() {
+        System.out.println();
+        System.out.printf("%-40s %14s    %10s %-5s %12s%n", "Benchmark", "Score", "Error", "Units", "Alloc");
+        for (Harness.Result result : results) {
+            System.out.println(result);
+        }
+    }
+
+    private static Sheet sheet(int rows, int columns) {
+        return new SheetBuilder(PARSER, FACTORY.createEmpty()).empty(rows, columns);
+    }
+
+    /**
+     * A sheet where each cell of the first column uses the cell above it.
+     */
+    private static Sheet chain(int rows) {
+        Sheet sheet = sheet(rows, 1);
+        sheet.update(0, 0, "1");
+        for (int row = 1; row < rows; row++) {
+            sheet.update(row, 0, "A" + (row - 1) + " + 1");
+        }
+        return sheet;
+    }
+
+    private static String longFormula(int terms) {
+        StringBuilder formula = new StringBuilder("A0");
+        for (int term = 1; term < terms; term++) {
+            formula.append(" + ").append(term);
+        }
+        return formula.toString();
+    }
+
+    private static void check(UpdateResponse response) {
+        if (!response.isSuccess()) {
+            throw new IllegalStateException(response.getMessage());
+        }
+    }
+
+    private void parsing() throws Exception {
+        run("parse.short", () -> PARSER.parse("A1 + 2"));
+        String formula = longFormula(1000);
+        run("parse.long[1000 terms]", () -> PARSER.parse(formula));
+    }
+
+    private void updates() throws Exception {
+        for (int rows : new int[]{100, 1000}) {
+            Sheet fibonacci = sheet(rows, 1);
+            new Fibonacci(rows).draw(fibonacci);
+            int[] counter = {0};
+            run("update.fibonacci[" + rows + "]", () -> {
+                UpdateResponse response = fibonacci.update(0, 0, "" + (counter[0]++ & 1));
+                check(response);
+                return response;
+            });
+
+            Sheet chain = chain(rows);
+            run("update.chain[" + rows + "]", () -> {
+                UpdateResponse response = chain.update(0, 0, "" + counter[0]++);
+                check(response);
+                return response;
+            });
+
+            Sheet fanOut = sheet(rows, 2);
+            fanOut.update(0, 0, "1");
+            for (int row = 0; row < rows; row++) {
+                fanOut.update(row, 1, "A0 * 2");
+            }
+            run("update.fanout[" + rows + "]", () -> {
+                UpdateResponse response = fanOut.update(0, 0, "" + counter[0]++);
+                check(response);
+                return response;
+            });
+        }
+    }
+
+    /**
+     * Updates of the first cell of each synthetic workload, which every other cell
+     * depends upon directly or indirectly, except in the aggregate layout.
+     */
+    private void workloads() throws Exception {
+        int rows = 1000;
+        int columns = 10;
+        Workload[] workloads = {
+            new DeepChain(rows, columns),
+            new FanOut(rows, columns),
+            new FanIn(rows, columns, 1),
+            new RandomDag(rows, columns, 50, 3, 1),
+            new Stencil(rows, columns, 1),
+            new Aggregates(rows, columns, 100, 1),
+        };
+        int[] counter = {0};
+        for (Workload workload : workloads) {
+            Sheet sheet = sheet(rows, columns);
+            workload.draw(sheet);
+            String name = workload.getClass().getSimpleName().toLowerCase();
+            run("update." + name + "[" + rows + "x" + columns + "]", () -> {
+                UpdateResponse response = sheet.update(0, 0, "" + (counter[0]++ & 1023));
+                check(response);
+                return response;
+            });
+        }
+    }
+
+    private void usages() throws Exception {
+        for (int rows : new int[]{100, 1000, 10000}) {
+            Sheet chain = chain(rows);
+            CellLocation top = new CellLocation(0, 0);
+            run("usedBy.chain[" + rows + "]", () -> chain.usedBy(top));
+        }
+    }
+
+    private void rendering() throws Exception {
+        Sheet sheet = sheet(1000, 10);
+        for (int row = 0; row < 1000; row++) {
+            for (int column = 0; column < 10; column++) {
+                sheet.update(row, column, "" + row * column);
+            }
+        }
+        run("valueAt.render[1000x10]", () -> {
+            int length = 0;
+            for (int row = 0; row < sheet.getRows(); row++) {
+                for (int column = 0; column < sheet.getColumns(); column++) {
+                    length += sheet.valueAt(row, column).getContent().length();
+                }
+            }
+            return length;
+        });
+
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        TextUI ui = new TextUI(sheet, sheet, discard, new Scanner(""));
+        run("textui.renderSheet[1000x10]", ui::renderSheet);
+    }
+}
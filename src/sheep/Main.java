@@ -14,8 +14,16 @@ import sheep.sheets.FixedSheet;
 import sheep.sheets.Sheet;
 import sheep.sheets.SheetBuilder;
 import sheep.ui.graphical.GUI;
+import sheep.ui.textual.TextUI;
+import sheep.ui.ProfilerFeature;
 import sheep.ui.UI;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 /**
  * Execute the SheeP spreadsheet program.
  * This file is for you to execute your program,
@@ -25,10 +33,15 @@ public class Main {
 
     /**
      * Start the spreadsheet program.
-     * @param args Parameters to the program, currently not supported.
+     * @param args Parameters to the program, either none to open the GUI,
+     *             "--viewport [rows] [columns]" to use the text interface with a scrollable window
+     *             of the given size, see {@link TextUI#useViewport(int, int)},
+     *             or "--script [file]" to run a script of commands against an empty sheet,
+     *             see {@link TextUI#runScript(BufferedReader)}. A file of "-" reads standard input.
      * @throws FunException If a pre-populator fails to insert an expression.
+     * @throws IOException If the script cannot be read.
      */
-    public static void main(String[] args) throws FunException {
+    public static void main(String[] args) throws FunException, IOException {
         // Stage 0: Completion of core and FixedSheet.
 //        FixedSheet simple = new FixedSheet();
   //      render(simple, simple);
@@ -49,12 +62,45 @@ public class Main {
 
         Sheet sheet = new SheetBuilder(parser, factory.createEmpty())
                 .includeBuiltIn("life", factory.createConstant(42))
+                .registerMetrics(true)
                 .empty(20, 10);
-        render(sheet, sheet);
+        Runtime.getRuntime().addShutdownHook(new Thread(sheet::dispose));
+        if (args.length == 2 && args[0].equals("--script")) {
+            runScript(sheet, args[1]);
+            return;
+        }
+        if (args.length == 3 && args[0].equals("--viewport")) {
+            TextUI ui = new TextUI(sheet, sheet);
+            ui.useViewport(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            populate(sheet);
+            ui.render();
+            return;
+        }
+
+        // Features are read when the menu is built, so register them before rendering.
+        UI ui = new GUI(sheet, sheet);
+        ui.addFeature("profile", "Profile Evaluation", new ProfilerFeature(sheet));
+        ui.render();
+        populate(sheet);
+    }
+
+    /**
+     * Stage 2a: Pre-populate sheets (just for fun).
+     * The GUI reads and updates the sheet while holding its lock, so do the same here.
+     */
+    private static void populate(Sheet sheet) throws FunException {
+        synchronized (sheet) {
+            new Fibonacci(20).draw(sheet);
+            new Pascal(4, 2).draw(sheet);
+        }
+    }
 
-        // Stage 2a: Pre-populate sheets (just for fun).
-        new Fibonacci(20).draw(sheet);
-        new Pascal(4, 2).draw(sheet);
+    private static void runScript(Sheet sheet, String file) throws IOException {
+        try (BufferedReader script = file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : Files.newBufferedReader(Path.of(file))) {
+            new TextUI(sheet, sheet).runScript(script);
+        }
     }
 
     private static UI render(SheetView view, SheetUpdate updater) {
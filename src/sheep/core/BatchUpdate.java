@@ -0,0 +1,27 @@
+package sheep.core;
+
+/**
+ * Handles replacing the values of many cells with a single recalculation.
+ * <p>
+ * Staged cells take their new formula immediately, but their values, and the values
+ * of any cells that use them, are only brought up to date by {@link BatchUpdate#commit()}.
+ * Unlike {@link SheetUpdate#update(int, int, String)}, a commit is never rolled back,
+ * so a cell that cannot be evaluated holds an error as its value.
+ */
+public interface BatchUpdate extends SheetUpdate {
+    /**
+     * Replace a cell's formula without recalculating the sheet.
+     *
+     * @param row The row index to update.
+     * @param column The column index to update.
+     * @param input The value as a string to replace within the sheet.
+     * @requires input != null
+     * @return An {@link UpdateResponse} indicating whether the input could be staged.
+     */
+    UpdateResponse stage(int row, int column, String input);
+
+    /**
+     * Recalculate every cell staged since the last commit, and every cell that uses them.
+     */
+    void commit();
+}
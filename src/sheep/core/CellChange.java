@@ -0,0 +1,12 @@
+package sheep.core;
+
+/**
+ * A change to the rendered value of a single cell.
+ * @param row The row index of the cell.
+ * @param column The column index of the cell.
+ * @param previous The rendered value of the cell before the change.
+ * @param value The rendered value of the cell after the change.
+ */
+public record CellChange(int row, int column, String previous, String value) {
+
+}
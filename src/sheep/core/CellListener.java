@@ -0,0 +1,14 @@
+package sheep.core;
+
+/**
+ * Receives notifications about individual cells of a sheet.
+ */
+public interface CellListener {
+    /**
+     * To be called whenever the value of a cell may have changed.
+     *
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     */
+    void changed(int row, int column);
+}
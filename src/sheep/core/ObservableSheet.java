@@ -0,0 +1,22 @@
+package sheep.core;
+
+/**
+ * A sheet that reports which cells may have changed value after each update,
+ * so that a user interface can redraw only those cells.
+ */
+public interface ObservableSheet {
+    /**
+     * Register a listener to be notified of every cell whose value may have changed
+     * once an update has completed.
+     *
+     * @param listener The listener to notify.
+     */
+    void addCellListener(CellListener listener);
+
+    /**
+     * Stop notifying a previously registered listener.
+     *
+     * @param listener The listener to remove.
+     */
+    void removeCellListener(CellListener listener);
+}
@@ -1,5 +1,7 @@
 package sheep.core;
 
+import java.util.Arrays;
+
 /**
  * Handles rendering of cells within a sheet.
  */
@@ -37,4 +39,100 @@ public interface SheetView {
      * @return A {@link ViewElement} that details how to render the cell's formula.
      */
     ViewElement formulaAt(int row, int column);
+
+    /**
+     * Copy the numeric values of a rectangular region into an array, row by row,
+     * without allocating a {@link ViewElement} per cell.
+     * <p>
+     * The value of the cell at (row + i, column + j) is stored at index k = i * columns + j
+     * of numbers, and bit k of valid, i.e. {@code valid[k >>> 6] & (1L << k)}, is set if the cell
+     * holds a number. A cell that is empty or holds an error has its bit cleared and 0 stored.
+     * <p>
+     * The default implementation parses the rendered value of each cell,
+     * implementations that evaluate numbers should read them directly.
+     *
+     * @param row The row index of the top left cell of the region.
+     * @param column The column index of the top left cell of the region.
+     * @param rows The number of rows in the region.
+     * @param columns The number of columns in the region.
+     * @param numbers The array to copy the values into.
+     * @param valid The bitmap of cells holding a number.
+     * @require the region is within the sheet, numbers.length &geq; rows * columns
+     *          and valid.length * 64 &geq; rows * columns
+     * @return The number of cells in the region holding a number.
+     */
+    default int readNumbers(int row, int column, int rows, int columns, long[] numbers, long[] valid) {
+        int cells = checkRegion(row, column, rows, columns, numbers.length);
+        if (valid.length < (cells + Long.SIZE - 1) / Long.SIZE) {
+            throw new IllegalArgumentException("Requires: valid.length * 64 >= rows * columns");
+        }
+        Arrays.fill(valid, 0, (cells + Long.SIZE - 1) / Long.SIZE, 0);
+        int count = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                int k = i * columns + j;
+                String content = valueAt(row + i, column + j).getContent();
+                numbers[k] = 0;
+                if (isNumber(content)) {
+                    try {
+                        numbers[k] = Long.parseLong(content);
+                        valid[k >>> 6] |= 1L << k;
+                        count++;
+                    } catch (NumberFormatException e) {
+                        // Too large to be a long, so not a number of a sheet.
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copy the rendered values of a rectangular region into an array, row by row,
+     * without allocating a {@link ViewElement} per cell.
+     * The value of the cell at (row + i, column + j) is stored at index i * columns + j of text.
+     *
+     * @param row The row index of the top left cell of the region.
+     * @param column The column index of the top left cell of the region.
+     * @param rows The number of rows in the region.
+     * @param columns The number of columns in the region.
+     * @param text The array to copy the rendered values into.
+     * @require the region is within the sheet and text.length &geq; rows * columns
+     */
+    default void readText(int row, int column, int rows, int columns, String[] text) {
+        checkRegion(row, column, rows, columns, text.length);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                text[i * columns + j] = valueAt(row + i, column + j).getContent();
+            }
+        }
+    }
+
+    /**
+     * Check that a region is within the sheet and fits in an array of the given length.
+     * @return The number of cells in the region.
+     */
+    private int checkRegion(int row, int column, int rows, int columns, int length) {
+        if (row < 0 || column < 0 || rows < 0 || columns < 0
+                || row + rows > getRows() || column + columns > getColumns()) {
+            throw new IllegalArgumentException("Requires: the region is within the sheet");
+        }
+        if (length < rows * columns) {
+            throw new IllegalArgumentException("Requires: the array holds rows * columns cells");
+        }
+        return rows * columns;
+    }
+
+    private static boolean isNumber(String content) {
+        int start = content.startsWith("-") ? 1 : 0;
+        if (content.length() == start) {
+            return false;
+        }
+        for (int i = start; i < content.length(); i++) {
+            if (content.charAt(i) < '0' || content.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
 }
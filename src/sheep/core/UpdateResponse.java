@@ -1,21 +1,34 @@
 package sheep.core;
 
+import java.util.Optional;
+
 /**
  * Indicates whether an update action was successful or not.
  * <p>
  * If the action is successful {@link UpdateResponse#isSuccess()} returns true.
  * Otherwise, {@link UpdateResponse} will store a message ({@link UpdateResponse#getMessage()})
  * to indicate what went wrong.
+ * A response may also carry the {@link UpdateStatistics} of the update, if the updater collects them.
+ * A successful update may be incomplete, when the updater stopped recalculating before evaluating
+ * every cell affected by the update and left the remaining cells to be evaluated later.
  * @invariant ({@link UpdateResponse#isSuccess()} &amp;&amp; {@link UpdateResponse#getMessage()} == null) ||
  *            (!{@link UpdateResponse#isSuccess()} &amp;&amp; {@link UpdateResponse#getMessage()} != null)
  */
 public class UpdateResponse {
     private final boolean success;
     private final String message;
+    private final UpdateStatistics statistics;
+    private final int pendingCells;
+
+    private UpdateResponse(boolean success, String message, UpdateStatistics statistics) {
+        this(success, message, statistics, 0);
+    }
 
-    private UpdateResponse(boolean success, String message) {
+    private UpdateResponse(boolean success, String message, UpdateStatistics statistics, int pendingCells) {
         this.success = success;
         this.message = message;
+        this.statistics = statistics;
+        this.pendingCells = pendingCells;
     }
 
     /**
@@ -25,7 +38,38 @@ public class UpdateResponse {
      * {@link UpdateResponse#isSuccess()} and has no message.
      */
     public static UpdateResponse success() {
-        return new UpdateResponse(true, null);
+        return new UpdateResponse(true, null, null);
+    }
+
+    /**
+     * Construct a successful {@link UpdateResponse} carrying the cost of the update.
+     *
+     * @param statistics The statistics of the update.
+     * @requires statistics != null
+     * @return An {@link UpdateResponse} which returns true for
+     * {@link UpdateResponse#isSuccess()}, has no message, and returns the provided
+     * statistics from {@link UpdateResponse#getStatistics()}.
+     */
+    public static UpdateResponse success(UpdateStatistics statistics) {
+        return new UpdateResponse(true, null, statistics);
+    }
+
+    /**
+     * Construct a successful {@link UpdateResponse} for an update whose recalculation
+     * was interrupted, leaving some affected cells to be evaluated later.
+     *
+     * @param pendingCells The number of cells left to be evaluated.
+     * @param statistics The statistics of the update, or null if none were collected.
+     * @requires pendingCells &gt; 0
+     * @return An {@link UpdateResponse} which returns true for
+     * {@link UpdateResponse#isSuccess()}, false for {@link UpdateResponse#isComplete()},
+     * and the provided number of cells for {@link UpdateResponse#getPendingCells()}.
+     */
+    public static UpdateResponse incomplete(int pendingCells, UpdateStatistics statistics) {
+        if (pendingCells <= 0) {
+            throw new IllegalArgumentException("Requires: pendingCells > 0");
+        }
+        return new UpdateResponse(true, null, statistics, pendingCells);
     }
 
     /**
@@ -38,7 +82,7 @@ public class UpdateResponse {
      * {@link UpdateResponse#getMessage()}.
      */
     public static UpdateResponse fail(String message) {
-        return new UpdateResponse(false, message);
+        return new UpdateResponse(false, message, null);
     }
 
     /**
@@ -49,6 +93,22 @@ public class UpdateResponse {
         return success;
     }
 
+    /**
+     * Returns true unless the update left cells to be evaluated later.
+     * @return True if every cell affected by the update was evaluated.
+     */
+    public boolean isComplete() {
+        return pendingCells == 0;
+    }
+
+    /**
+     * The number of cells the update left to be evaluated later, 0 if the update is complete.
+     * @return The number of cells waiting to be evaluated.
+     */
+    public int getPendingCells() {
+        return pendingCells;
+    }
+
     /**
      * Returns A message to explain why an update failed.
      * If the update was successful, this will return null.
@@ -57,4 +117,12 @@ public class UpdateResponse {
     public String getMessage() {
         return message;
     }
+
+    /**
+     * The statistics of the update, if the updater collected them.
+     * @return The cost of the update, or empty if no statistics were collected.
+     */
+    public Optional<UpdateStatistics> getStatistics() {
+        return Optional.ofNullable(statistics);
+    }
 }
@@ -0,0 +1,143 @@
+package sheep.core;
+
+import java.util.Arrays;
+
+/**
+ * The cost of an update, optionally carried by an {@link UpdateResponse}.
+ * <p>
+ * The statistics describe how long the input took to parse and evaluate,
+ * how many cells were recalculated as a result, the length of the longest chain of
+ * usages of the updated cell, and which cells changed.
+ * The changed cells are those whose rendered value changed, or became stale
+ * in a sheet that evaluates lazily.
+ */
+public final class UpdateStatistics {
+    private final long parseNanos;
+    private final long evaluationNanos;
+    private final int recalculatedCells;
+    private final int coneDepth;
+    private final int[] changedRows;
+    private final int[] changedColumns;
+
+    /**
+     * Construct the statistics of an update.
+     *
+     * @param parseNanos Nanoseconds spent parsing the input.
+     * @param evaluationNanos Nanoseconds spent inserting and evaluating the parsed input.
+     * @param recalculatedCells The number of cells evaluated by the update.
+     * @param coneDepth The length of the longest chain of cells using the updated cell.
+     * @param changedRows The row index of each changed cell.
+     * @param changedColumns The column index of each changed cell, in the same order.
+     * @requires changedRows.length == changedColumns.length
+     */
+    public UpdateStatistics(long parseNanos, long evaluationNanos, int recalculatedCells,
+                            int coneDepth, int[] changedRows, int[] changedColumns) {
+        if (changedRows.length != changedColumns.length) {
+            throw new IllegalArgumentException("Requires: changedRows.length == changedColumns.length");
+        }
+        this.parseNanos = parseNanos;
+        this.evaluationNanos = evaluationNanos;
+        this.recalculatedCells = recalculatedCells;
+        this.coneDepth = coneDepth;
+        this.changedRows = changedRows.clone();
+        this.changedColumns = changedColumns.clone();
+    }
+
+    /**
+     * Nanoseconds spent parsing the input.
+     * @return Nanoseconds spent parsing the input.
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Nanoseconds spent inserting and evaluating the parsed input, including all recalculation.
+     * @return Nanoseconds spent evaluating.
+     */
+    public long getEvaluationNanos() {
+        return evaluationNanos;
+    }
+
+    /**
+     * The number of cells evaluated by the update, including the updated cell.
+     * @return The number of cells evaluated.
+     */
+    public int getRecalculatedCells() {
+        return recalculatedCells;
+    }
+
+    /**
+     * The length of the longest chain of cells that, directly or indirectly, use the updated cell.
+     * A cell that no other cell uses has a cone depth of 0.
+     * @return The depth of the cone of usages of the updated cell.
+     */
+    public int getConeDepth() {
+        return coneDepth;
+    }
+
+    /**
+     * The number of cells that changed.
+     * @return The number of changed cells.
+     */
+    public int getChangedCount() {
+        return changedRows.length;
+    }
+
+    /**
+     * The row index of a changed cell.
+     * @param index The index of the changed cell, less than {@link #getChangedCount()}.
+     * @return The row of the changed cell.
+     */
+    public int getChangedRow(int index) {
+        return changedRows[index];
+    }
+
+    /**
+     * The column index of a changed cell.
+     * @param index The index of the changed cell, less than {@link #getChangedCount()}.
+     * @return The column of the changed cell.
+     */
+    public int getChangedColumn(int index) {
+        return changedColumns[index];
+    }
+
+    /**
+     * The first row containing a changed cell, or -1 if no cells changed.
+     * @return The smallest row index of the changed cells.
+     */
+    public int getFirstChangedRow() {
+        return changedRows.length == 0 ? -1 : Arrays.stream(changedRows).min().getAsInt();
+    }
+
+    /**
+     * The last row containing a changed cell, or -1 if no cells changed.
+     * @return The largest row index of the changed cells.
+     */
+    public int getLastChangedRow() {
+        return changedRows.length == 0 ? -1 : Arrays.stream(changedRows).max().getAsInt();
+    }
+
+    /**
+     * The first column containing a changed cell, or -1 if no cells changed.
+     * @return The smallest column index of the changed cells.
+     */
+    public int getFirstChangedColumn() {
+        return changedColumns.length == 0 ? -1 : Arrays.stream(changedColumns).min().getAsInt();
+    }
+
+    /**
+     * The last column containing a changed cell, or -1 if no cells changed.
+     * @return The largest column index of the changed cells.
+     */
+    public int getLastChangedColumn() {
+        return changedColumns.length == 0 ? -1 : Arrays.stream(changedColumns).max().getAsInt();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("parse %.3f ms, evaluate %.3f ms, %d cells recalculated, "
+                        + "cone depth %d, %d cells changed",
+                parseNanos / 1e6, evaluationNanos / 1e6, recalculatedCells, coneDepth, changedRows.length);
+    }
+}
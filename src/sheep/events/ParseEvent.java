@@ -0,0 +1,29 @@
+package sheep.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The parsing of a single input into an expression.
+ * Inputs are parsed far more often than other events occur, so by default
+ * only parses longer than a millisecond are recorded, without a stack trace.
+ */
+@Name("sheep.Parse")
+@Label("Parse")
+@Category({"SheeP", "Parsing"})
+@Description("Parsing of an input into an expression")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ParseEvent extends Event {
+    @Label("Input Length")
+    public int inputLength;
+
+    @Label("Failed")
+    @Description("Whether the input could not be parsed")
+    public boolean failed;
+}
@@ -0,0 +1,32 @@
+package sheep.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A single pass evaluating cells of a sheet, either the usages of dirty cells
+ * or the stale dependencies of a cell read from a lazy sheet.
+ */
+@Name("sheep.Recalculation")
+@Label("Recalculation")
+@Category({"SheeP", "Sheet"})
+@Description("Evaluation of a set of cells in dependency order")
+public class RecalculationEvent extends Event {
+    @Label("Kind")
+    @Description("Either \"recalculate\" for an eager pass or \"resolve\" for a lazy read")
+    public String kind;
+
+    @Label("Seed Cells")
+    @Description("The number of cells that triggered the pass")
+    public int seedCells;
+
+    @Label("Evaluated Cells")
+    public int evaluatedCells;
+
+    @Label("Strict")
+    @Description("Whether a type error aborts the pass")
+    public boolean strict;
+}
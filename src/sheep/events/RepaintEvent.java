@@ -0,0 +1,36 @@
+package sheep.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The notification of a graphical table that cells of its sheet have changed.
+ */
+@Name("sheep.Repaint")
+@Label("Table Repaint")
+@Category({"SheeP", "User Interface"})
+@Description("Table model events fired for changed cells")
+public class RepaintEvent extends Event {
+    @Label("Changed Cells")
+    public int changedCells;
+
+    @Label("Table Events")
+    @Description("The number of table model events fired")
+    public int tableEvents;
+
+    /**
+     * Commit the event, if the event is enabled and lasted longer than its threshold.
+     * @param changedCells The number of cells that changed.
+     * @param tableEvents The number of table model events fired.
+     */
+    public void report(int changedCells, int tableEvents) {
+        if (shouldCommit()) {
+            this.changedCells = changedCells;
+            this.tableEvents = tableEvents;
+            commit();
+        }
+    }
+}
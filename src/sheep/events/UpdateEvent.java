@@ -0,0 +1,38 @@
+package sheep.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The update of a single cell of a sheet, including the recalculation of its usages.
+ */
+@Name("sheep.Update")
+@Label("Sheet Update")
+@Category({"SheeP", "Sheet"})
+@Description("Update of a cell, including the recalculation of the cells that use it")
+public class UpdateEvent extends Event {
+    @Label("Row")
+    public int row;
+
+    @Label("Column")
+    public int column;
+
+    @Label("Formula Length")
+    @Description("The length of the rendered formula")
+    public int formulaLength;
+
+    @Label("Dependencies")
+    @Description("The number of identifiers the formula refers to")
+    public int dependencies;
+
+    @Label("Affected Cells")
+    @Description("The number of cells whose value changed or became stale")
+    public int affectedCells;
+
+    @Label("Failed")
+    @Description("Whether the update was rolled back due to a type error")
+    public boolean failed;
+}
@@ -0,0 +1,52 @@
+package sheep.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The reading of the values of a rectangular region of a sheet in one batch.
+ */
+@Name("sheep.ValueBatch")
+@Label("Value Batch")
+@Category({"SheeP", "Sheet"})
+@Description("Reading of the values of a region of a sheet")
+public class ValueBatchEvent extends Event {
+    @Label("Source")
+    @Description("What read the values, such as a prefetch, render or export")
+    public String source;
+
+    @Label("Row")
+    public int row;
+
+    @Label("Column")
+    public int column;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Columns")
+    public int columns;
+
+    /**
+     * Commit the event with the given region, if the event is enabled and
+     * lasted longer than its threshold.
+     * @param source What read the values.
+     * @param row The first row of the region.
+     * @param column The first column of the region.
+     * @param rows The number of rows in the region.
+     * @param columns The number of columns in the region.
+     */
+    public void report(String source, int row, int column, int rows, int columns) {
+        if (shouldCommit()) {
+            this.source = source;
+            this.row = row;
+            this.column = column;
+            this.rows = rows;
+            this.columns = columns;
+            commit();
+        }
+    }
+}
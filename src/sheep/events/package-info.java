@@ -0,0 +1,8 @@
+/**
+ * Java Flight Recorder events emitted by the spreadsheet engine and user interfaces.
+ * All events are in the "SheeP" category and cost close to nothing unless enabled
+ * in a recording, for example with
+ * <code>-XX:StartFlightRecording:settings=profile</code> or
+ * <code>jcmd &lt;pid&gt; JFR.start</code>.
+ */
+package sheep.events;
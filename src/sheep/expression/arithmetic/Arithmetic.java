@@ -3,12 +3,15 @@ package sheep.expression.arithmetic;
 import sheep.expression.Expression;
 import sheep.expression.TypeError;
 import sheep.expression.basic.Constant;
+import sheep.expression.basic.ErrorValue;
 
 import java.util.*;
 
 /**
  * An arithmetic expression.
  * Performs arithmetic operations on a sequence of sub-expressions.
+ * If a sub-expression evaluates to an {@link ErrorValue}, the operation evaluates to that error,
+ * and if it evaluates to anything else that is not a constant, to {@link ErrorValue#VALUE}.
  */
 
 public abstract class Arithmetic extends Expression {
@@ -111,16 +114,32 @@ public abstract class Arithmetic extends Expression {
 
             Expression content = this.arguments[i].value(state);
 
+            if (content instanceof ErrorValue) {
+                return content;
+            }
             if (!(content instanceof Constant)) {
-                throw new TypeError();
+                return ErrorValue.VALUE;
             }
 
             argumentLongs[i] = ((Constant) content).getValue();
         }
+        ErrorValue error = check(argumentLongs);
+        if (error != null) {
+            return error;
+        }
         long result = perform(argumentLongs);
         return new Constant(result);
     }
 
+    /**
+     * Check whether the operation is defined for the given arguments before performing it.
+     * @param arguments The values of the sub-expressions.
+     * @return The error the operation evaluates to, or null if it can be performed.
+     */
+    protected ErrorValue check(long[] arguments) {
+        return null;
+    }
+
     @Override
     public long value() throws TypeError {
         throw new TypeError();
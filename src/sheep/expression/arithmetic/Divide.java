@@ -1,6 +1,7 @@
 package sheep.expression.arithmetic;
 
 import sheep.expression.Expression;
+import sheep.expression.basic.ErrorValue;
 
 class Divide extends Arithmetic {
     private Expression[] arguments;
@@ -9,6 +10,16 @@ class Divide extends Arithmetic {
         super("/", arguments);
     }
 
+    @Override
+    protected ErrorValue check(long[] arguments) {
+        for (int i = 1; i < arguments.length; i++) {
+            if (arguments[i] == 0) {
+                return ErrorValue.DIVIDE_BY_ZERO;
+            }
+        }
+        return null;
+    }
+
     @Override
     protected long perform(long[] arguments) {
         if (arguments == null || arguments.length == 0) {
@@ -0,0 +1,91 @@
+package sheep.expression.basic;
+
+import sheep.expression.Expression;
+import sheep.expression.TypeError;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The result of an expression that could not be evaluated to a number,
+ * in the spirit of the #VALUE! of other spreadsheets.
+ * <p>
+ * Errors are values rather than exceptions: an operator with an erroneous argument
+ * evaluates to that same error, so an error propagates through every cell that uses it
+ * without unwinding the stack. Each kind of error is a single shared instance,
+ * so producing an error allocates nothing.
+ * A {@link TypeError} is only thrown when an error reaches a caller that requires a number,
+ * see {@link #value()} and {@link #toTypeError()}.
+ */
+public final class ErrorValue extends Expression {
+    /** An operator was applied to something other than a number, e.g. an empty cell. */
+    public static final ErrorValue VALUE = new ErrorValue("#VALUE!", "Not a number");
+    /** A number was divided by zero. */
+    public static final ErrorValue DIVIDE_BY_ZERO = new ErrorValue("#DIV/0!", "Division by zero");
+    /** The cell is part of a circular reference. */
+    public static final ErrorValue CIRCULAR = new ErrorValue("#CIRCULAR!", "Circular reference");
+
+    private final String code;
+    private final String message;
+
+    private ErrorValue(String code, String message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    /**
+     * The error rendered as the given code, e.g. "#VALUE!".
+     * @param code The rendered content of a cell.
+     * @return The error rendered as the code, or null if the code is not an error.
+     */
+    public static ErrorValue ofCode(String code) {
+        for (ErrorValue error : new ErrorValue[]{VALUE, DIVIDE_BY_ZERO, CIRCULAR}) {
+            if (error.code.equals(code)) {
+                return error;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A description of the error.
+     * @return The description of the error.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Convert the error into an exception for callers that cannot accept an error value.
+     * @return A new TypeError with the description of this error.
+     */
+    public TypeError toTypeError() {
+        return new TypeError(message);
+    }
+
+    @Override
+    public Set<String> dependencies() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Expression value(Map<String, Expression> state) {
+        return this;
+    }
+
+    @Override
+    public long value() throws TypeError {
+        throw toTypeError();
+    }
+
+    @Override
+    public String render() {
+        return code;
+    }
+
+    @Override
+    public String toString() {
+        return "ERROR(" + code + ")";
+    }
+}
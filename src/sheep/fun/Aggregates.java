@@ -0,0 +1,63 @@
+package sheep.fun;
+
+import java.util.SplittableRandom;
+
+/**
+ * A table of data with a subtotal for each group of rows and a grand total.
+ * <p>
+ * Every cell of the first columns - 1 columns holds a random constant.
+ * The last column holds, at the last row of each group, the sum of every constant
+ * in that group, and its last row holds the sum of the subtotals.
+ * Updating a constant recalculates one subtotal and the grand total,
+ * each of which has many dependencies.
+ */
+public class Aggregates extends Workload {
+    private final int groupSize;
+    private final long seed;
+
+    /**
+     * Construct an aggregate layout over the given region.
+     * @param rows The number of rows to fill, the last holding the grand total.
+     * @param columns The number of columns, the last holding the subtotals.
+     * @param groupSize The number of rows summed by each subtotal.
+     * @param seed The seed of the random constants.
+     * Requires:
+     * rows &gt;= 2, columns &gt;= 2, groupSize &gt; 0
+     */
+    public Aggregates(int rows, int columns, int groupSize, long seed) {
+        super(rows, columns);
+        if (rows < 2 || columns < 2 || groupSize <= 0) {
+            throw new IllegalArgumentException("Requires: rows >= 2, columns >= 2, groupSize > 0");
+        }
+        this.groupSize = groupSize;
+        this.seed = seed;
+    }
+
+    @Override
+    protected void populate(Cells cells) throws FunException {
+        SplittableRandom random = new SplittableRandom(seed);
+        int dataRows = rows - 1;
+        int totalColumn = columns - 1;
+        StringBuilder subtotal = new StringBuilder();
+        StringBuilder total = new StringBuilder();
+        for (int first = 0; first < dataRows; first += groupSize) {
+            int last = Math.min(first + groupSize, dataRows) - 1;
+            subtotal.setLength(0);
+            for (int row = first; row <= last; row++) {
+                for (int column = 0; column < totalColumn; column++) {
+                    cells.put(row, column, Integer.toString(random.nextInt(1000)));
+                    if (subtotal.length() > 0) {
+                        subtotal.append(" + ");
+                    }
+                    subtotal.append(reference(row, column));
+                }
+            }
+            cells.put(last, totalColumn, subtotal.toString());
+            if (total.length() > 0) {
+                total.append(" + ");
+            }
+            total.append(reference(last, totalColumn));
+        }
+        cells.put(dataRows, totalColumn, total.toString());
+    }
+}
@@ -0,0 +1,30 @@
+package sheep.fun;
+
+/**
+ * A single chain of dependencies through every cell of the region.
+ * <p>
+ * The chain runs down each column in turn, each cell adding one to the cell before it,
+ * so updating the first cell recalculates every other cell one after the other.
+ * The depth of the chain is rows * columns - 1.
+ */
+public class DeepChain extends Workload {
+    /**
+     * Construct a chain through the given region.
+     * @param rows The number of rows to fill.
+     * @param columns The number of columns to fill.
+     */
+    public DeepChain(int rows, int columns) {
+        super(rows, columns);
+    }
+
+    @Override
+    protected void populate(Cells cells) throws FunException {
+        cells.put(0, 0, "1");
+        for (int column = 0; column < columns; column++) {
+            for (int row = column == 0 ? 1 : 0; row < rows; row++) {
+                String previous = row == 0 ? reference(rows - 1, column - 1) : reference(row - 1, column);
+                cells.put(row, column, previous + " + 1");
+            }
+        }
+    }
+}
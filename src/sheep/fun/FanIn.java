@@ -0,0 +1,46 @@
+package sheep.fun;
+
+import java.util.SplittableRandom;
+
+/**
+ * Many constant cells used directly by a single total.
+ * <p>
+ * Every cell of the first columns - 1 columns holds a random constant,
+ * and the first cell of the last column holds the sum of all of them,
+ * so the total has rows * (columns - 1) dependencies.
+ */
+public class FanIn extends Workload {
+    private final long seed;
+
+    /**
+     * Construct a fan in over the given region.
+     * @param rows The number of rows of constants.
+     * @param columns The number of columns, the last holding the total.
+     * @param seed The seed of the random constants.
+     * Requires:
+     * columns &gt;= 2
+     */
+    public FanIn(int rows, int columns, long seed) {
+        super(rows, columns);
+        if (columns < 2) {
+            throw new IllegalArgumentException("Requires: columns >= 2");
+        }
+        this.seed = seed;
+    }
+
+    @Override
+    protected void populate(Cells cells) throws FunException {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder total = new StringBuilder();
+        for (int column = 0; column < columns - 1; column++) {
+            for (int row = 0; row < rows; row++) {
+                cells.put(row, column, Integer.toString(random.nextInt(1000)));
+                if (total.length() > 0) {
+                    total.append(" + ");
+                }
+                total.append(reference(row, column));
+            }
+        }
+        cells.put(0, columns - 1, total.toString());
+    }
+}
@@ -0,0 +1,29 @@
+package sheep.fun;
+
+/**
+ * A single source cell used directly by every other cell of the region.
+ * <p>
+ * Updating the source recalculates every other cell, each of which depends
+ * on nothing else, so the cone of the source is as wide as the region and one cell deep.
+ */
+public class FanOut extends Workload {
+    /**
+     * Construct a fan out over the given region.
+     * @param rows The number of rows to fill.
+     * @param columns The number of columns to fill.
+     */
+    public FanOut(int rows, int columns) {
+        super(rows, columns);
+    }
+
+    @Override
+    protected void populate(Cells cells) throws FunException {
+        String source = reference(0, 0);
+        cells.put(0, 0, "1");
+        for (int column = 0; column < columns; column++) {
+            for (int row = column == 0 ? 1 : 0; row < rows; row++) {
+                cells.put(row, column, source + " * " + (row + column));
+            }
+        }
+    }
+}
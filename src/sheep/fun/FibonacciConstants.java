@@ -14,10 +14,14 @@ public class FibonacciConstants implements Fun {
     }
 
     private long fib(int n) {
-        if (n <= 1) {
-            return 1;
+        long previous = 1;
+        long current = 1;
+        for (int i = 1; i < n; i++) {
+            long next = previous + current;
+            previous = current;
+            current = next;
         }
-        return fib(n - 1) + fib(n - 2);
+        return current;
     }
 
     @Override
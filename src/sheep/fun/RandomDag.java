@@ -0,0 +1,72 @@
+package sheep.fun;
+
+import java.util.SplittableRandom;
+
+/**
+ * A random directed acyclic graph of cells with a controlled depth and degree.
+ * <p>
+ * The rows of the region are split into layers of (nearly) equal height.
+ * Every cell of the first layer holds a random constant, and every cell of a later layer
+ * averages a fixed number of randomly chosen cells of the layer above it,
+ * so every path through the graph is exactly depth - 1 cells long.
+ * Averaging keeps the values within the range of the constants however deep the graph.
+ */
+public class RandomDag extends Workload {
+    private final int depth;
+    private final int degree;
+    private final long seed;
+
+    /**
+     * Construct a random graph over the given region.
+     * @param rows The number of rows to fill.
+     * @param columns The number of columns to fill.
+     * @param depth The number of layers.
+     * @param degree The number of cells of the layer above used by each cell.
+     * @param seed The seed of the random constants and edges.
+     * Requires:
+     * 0 &lt; depth &lt;= rows, degree &gt; 0
+     */
+    public RandomDag(int rows, int columns, int depth, int degree, long seed) {
+        super(rows, columns);
+        if (depth <= 0 || depth > rows || degree <= 0) {
+            throw new IllegalArgumentException("Requires: 0 < depth <= rows, degree > 0");
+        }
+        this.depth = depth;
+        this.degree = degree;
+        this.seed = seed;
+    }
+
+    /**
+     * The first row of a layer, where layer depth is one past the last row.
+     */
+    private int firstRow(int layer) {
+        return (int) ((long) layer * rows / depth);
+    }
+
+    @Override
+    protected void populate(Cells cells) throws FunException {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder formula = new StringBuilder();
+        for (int layer = 0; layer < depth; layer++) {
+            int above = layer == 0 ? 0 : firstRow(layer - 1);
+            int height = firstRow(layer) - above;
+            for (int row = firstRow(layer); row < firstRow(layer + 1); row++) {
+                for (int column = 0; column < columns; column++) {
+                    if (layer == 0) {
+                        cells.put(row, column, Integer.toString(random.nextInt(1000)));
+                        continue;
+                    }
+                    formula.setLength(0);
+                    for (int edge = 0; edge < degree; edge++) {
+                        if (edge > 0) {
+                            formula.append(" + ");
+                        }
+                        formula.append(reference(above + random.nextInt(height), random.nextInt(columns)))
+                                .append(" / ").append(degree);
+                    }
+                    cells.put(row, column, formula.toString());
+                }
+            }
+        }
+    }
+}
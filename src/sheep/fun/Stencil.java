@@ -0,0 +1,42 @@
+package sheep.fun;
+
+import java.util.SplittableRandom;
+
+/**
+ * A grid where each cell averages its three neighbours in the row above,
+ * like successive time steps of a one dimensional diffusion.
+ * <p>
+ * The first row holds random constants. Every later cell averages the cells above-left,
+ * above and above-right of it, clamped at the edges of the region,
+ * so updating a cell of the first row recalculates a widening triangle beneath it.
+ */
+public class Stencil extends Workload {
+    private final long seed;
+
+    /**
+     * Construct a stencil over the given region.
+     * @param rows The number of rows to fill.
+     * @param columns The number of columns to fill.
+     * @param seed The seed of the random constants of the first row.
+     */
+    public Stencil(int rows, int columns, long seed) {
+        super(rows, columns);
+        this.seed = seed;
+    }
+
+    @Override
+    protected void populate(Cells cells) throws FunException {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int column = 0; column < columns; column++) {
+            cells.put(0, column, Integer.toString(random.nextInt(1000)));
+        }
+        for (int row = 1; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                String left = reference(row - 1, Math.max(0, column - 1));
+                String above = reference(row - 1, column);
+                String right = reference(row - 1, Math.min(columns - 1, column + 1));
+                cells.put(row, column, left + " / 3 + " + above + " / 3 + " + right + " / 3");
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package sheep.fun;
+
+import sheep.core.BatchUpdate;
+import sheep.core.SheetUpdate;
+import sheep.core.UpdateResponse;
+
+/**
+ * A synthetic sheet of a particular shape, for load testing.
+ * <p>
+ * Each workload fills a region of rows and columns starting at the top left of the sheet.
+ * Workloads that use randomness take a seed, so the same workload with the same seed
+ * always produces the same formulas.
+ * If the sheet supports {@link BatchUpdate}, every cell is staged and the sheet is
+ * recalculated once at the end, otherwise each cell is updated in turn,
+ * always in an order where a cell is written after the cells it uses.
+ */
+public abstract class Workload implements Fun {
+    /** The number of columns addressable by a cell reference, A to Z. */
+    private static final int MAX_COLUMNS = 26;
+
+    /**
+     * Writes the formula of a single cell.
+     */
+    protected interface Cells {
+        /**
+         * @param row The row index of the cell.
+         * @param column The column index of the cell.
+         * @param input The formula of the cell.
+         * @throws FunException If the cell cannot be written.
+         */
+        void put(int row, int column, String input) throws FunException;
+    }
+
+    protected final int rows;
+    protected final int columns;
+
+    /**
+     * Construct a workload covering the given number of rows and columns.
+     * @param rows The number of rows to fill.
+     * @param columns The number of columns to fill.
+     * Requires:
+     * rows &gt; 0, 0 &lt; columns &lt;= 26
+     */
+    protected Workload(int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || columns > MAX_COLUMNS) {
+            throw new IllegalArgumentException("Requires: rows > 0, 0 < columns <= " + MAX_COLUMNS);
+        }
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    @Override
+    public void draw(SheetUpdate sheet) throws FunException {
+        if (sheet instanceof BatchUpdate batch) {
+            populate((row, column, input) -> check(batch.stage(row, column, input)));
+            batch.commit();
+        } else {
+            populate((row, column, input) -> check(sheet.update(row, column, input)));
+        }
+    }
+
+    /**
+     * Write the formula of every cell of the workload, never writing a cell
+     * before the cells it uses.
+     * @param cells Where to write the formulas.
+     * @throws FunException If a cell cannot be written.
+     */
+    protected abstract void populate(Cells cells) throws FunException;
+
+    private static void check(UpdateResponse response) throws FunException {
+        if (!response.isSuccess()) {
+            throw new FunException(response.getMessage());
+        }
+    }
+
+    /**
+     * The reference to a cell, e.g. "B3" for row 3 and column 1.
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     * @return The identifier referring to the cell.
+     */
+    protected static String reference(int row, int column) {
+        return (char) ('A' + column) + Integer.toString(row);
+    }
+}
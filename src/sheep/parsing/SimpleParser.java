@@ -4,6 +4,7 @@ import sheep.expression.CoreFactory;
 import sheep.expression.Expression;
 import sheep.expression.ExpressionFactory;
 import sheep.expression.InvalidExpression;
+import sheep.events.ParseEvent;
 
 import java.util.regex.Pattern;
 
@@ -11,6 +12,16 @@ import java.util.regex.Pattern;
  * Parser of basic expressions and arithmetic expressions.
  */
 public class SimpleParser implements Parser {
+    private static final String[] OPERATORS = {"=", "<", "+", "-", "*", "/"};
+    /** The pattern splitting an input on each operator, compiled once rather than per split. */
+    private static final Pattern[] SPLITTERS = new Pattern[OPERATORS.length];
+
+    static {
+        for (int i = 0; i < OPERATORS.length; i++) {
+            SPLITTERS[i] = Pattern.compile(Pattern.quote(OPERATORS[i]));
+        }
+    }
+
     private ExpressionFactory factory;
 
     /**
@@ -23,6 +34,22 @@ public class SimpleParser implements Parser {
 
     @Override
     public Expression parse(String input) throws ParseException {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        try {
+            return parseExpression(input);
+        } catch (ParseException e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.inputLength = input.length();
+                event.commit();
+            }
+        }
+    }
+
+    private Expression parseExpression(String input) throws ParseException {
 
         input = input.trim();
 
@@ -30,22 +57,25 @@ public class SimpleParser implements Parser {
             return this.factory.createEmpty();
         }
 
-        try {
-            long num = Long.parseLong(input);
-            return this.factory.createConstant(num);
-        } catch (NumberFormatException e) {
-            // Keep parsing because it's not a number
+        // Only attempt to parse inputs that look like numbers, as a failed parse is expensive.
+        if (isNumeric(input)) {
+            try {
+                long num = Long.parseLong(input);
+                return this.factory.createConstant(num);
+            } catch (NumberFormatException e) {
+                // Keep parsing because it's not a number, e.g. it is too large
+            }
         }
 
-        String[] operators = {"=", "<", "+", "-", "*", "/"};
-        for (String operator : operators) {
+        for (int o = 0; o < OPERATORS.length; o++) {
+            String operator = OPERATORS[o];
             if (input.contains(operator)) {
                 // Split input into array of strings
-                String[] inputComponents = input.split(Pattern.quote(operator));
+                String[] inputComponents = SPLITTERS[o].split(input);
                 // Parse each string in the array and add to an expression array
                 Expression[] arguments = new Expression[inputComponents.length];
                 for (int i = 0; i < inputComponents.length; i++) {
-                    arguments[i] = parse(inputComponents[i]);
+                    arguments[i] = parseExpression(inputComponents[i]);
                 }
                 try {
                     return this.factory.createOperator(operator, arguments);
@@ -55,10 +85,40 @@ public class SimpleParser implements Parser {
             }
         }
 
-        if (input.chars().allMatch(c -> Character.isAlphabetic(c) || Character.isDigit(c))) {
+        if (isIdentifier(input)) {
             return this.factory.createReference(input);
         }
 
         throw new ParseException();
     }
+
+    /**
+     * Whether every character of the input is a letter or a digit.
+     */
+    private static boolean isIdentifier(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (!Character.isAlphabetic(c) && !Character.isDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the input is an optional sign followed by one or more digits,
+     * the only inputs {@link Long#parseLong(String)} may accept.
+     */
+    private static boolean isNumeric(String input) {
+        int start = input.charAt(0) == '-' || input.charAt(0) == '+' ? 1 : 0;
+        if (start == input.length()) {
+            return false;
+        }
+        for (int i = start; i < input.length(); i++) {
+            if (!Character.isDigit(input.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
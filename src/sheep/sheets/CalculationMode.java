@@ -0,0 +1,26 @@
+package sheep.sheets;
+
+/**
+ * When a {@link Sheet} recalculates the cells affected by an update,
+ * selected with {@link SheetBuilder#calculationMode(CalculationMode)}
+ * or {@link Sheet#setCalculationMode(CalculationMode)}.
+ */
+public enum CalculationMode {
+    /**
+     * Every update is evaluated immediately, along with every cell that uses it,
+     * and an update that results in an error is rolled back.
+     */
+    AUTOMATIC,
+    /**
+     * Updates only replace formulas and mark their cells dirty.
+     * Values are not evaluated until {@link Sheet#recalculate()} is called,
+     * so errors are held as values rather than rolling back an update.
+     */
+    MANUAL,
+    /**
+     * Updates are marked dirty as in {@link #MANUAL} and recalculated together,
+     * either once a number of edits have accumulated or once no edit has been made
+     * for a quiet period, see {@link Sheet#setDeferral(int, java.time.Duration)}.
+     */
+    DEFERRED
+}
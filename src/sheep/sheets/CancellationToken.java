@@ -0,0 +1,35 @@
+package sheep.sheets;
+
+/**
+ * A flag that asks a running recalculation to stop, see {@link RecalculationBudget}.
+ * <p>
+ * The token may be cancelled from any thread, typically while another thread holds
+ * the lock of the sheet being recalculated. The recalculation checks the token before
+ * evaluating each cell, so it stops within the evaluation of one cell of being cancelled.
+ * A cancelled token stops every recalculation that uses it until it is reset.
+ */
+public final class CancellationToken {
+    private volatile boolean cancelled;
+
+    /**
+     * Ask any recalculation using this token to stop.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Whether this token has been cancelled since it was constructed or last reset.
+     * @return True if the token is cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Allow recalculations using this token to run to completion again.
+     */
+    public void reset() {
+        cancelled = false;
+    }
+}
@@ -82,8 +82,9 @@ public class CellLocation {
 
     @Override
     public int hashCode() {
+        // A multiplier above the 26 columns of a sheet gives every cell of a sheet its own hash.
         int result = Integer.hashCode(row);
-        result = 13 * result + Integer.hashCode(column);
+        result = 31 * result + Integer.hashCode(column);
         return result;
     }
 
@@ -0,0 +1,182 @@
+package sheep.sheets;
+
+import sheep.core.CellChange;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Publishes the changes to the values of a {@link Sheet} as batches of {@link CellChange},
+ * see {@link Sheet#getChangeFeed()}.
+ * <p>
+ * A batch is offered after each recalculation that changes a value, and holds the previous and
+ * new rendered value of each changed cell. Each subscriber may restrict itself to a region
+ * of the sheet with {@link #subscribe(Flow.Subscriber, Region)}.
+ * <p>
+ * Batches are delivered on the executor of the feed, one batch per requested item.
+ * Changes made while a subscriber has no outstanding demand are merged rather than queued:
+ * the subscriber's next batch holds one change per cell, from the value it last received
+ * to the latest value, and a cell that changed back to the value it last received is left out.
+ * A slow subscriber therefore holds at most one change for each cell it observes.
+ * <p>
+ * The feed never completes, a subscriber stops receiving batches by cancelling its subscription.
+ */
+public final class ChangeFeed implements Flow.Publisher<List<CellChange>> {
+    private final Executor executor;
+    private final List<FeedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    ChangeFeed(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Subscribe to the changes of every cell in the sheet.
+     * @param subscriber The subscriber to receive batches of changes.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<CellChange>> subscriber) {
+        subscribe(subscriber, null);
+    }
+
+    /**
+     * Subscribe to the changes of the cells within a region of the sheet.
+     * @param subscriber The subscriber to receive batches of changes.
+     * @param region The cells to observe, or null to observe every cell.
+     */
+    public void subscribe(Flow.Subscriber<? super List<CellChange>> subscriber, Region region) {
+        if (subscriber == null) {
+            throw new NullPointerException("Requires: subscriber != null");
+        }
+        FeedSubscription subscription = new FeedSubscription(subscriber, region);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Whether any subscriber is observing the feed, i.e. whether changes need to be collected.
+     */
+    boolean isActive() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Merge a batch of changes into the pending changes of every subscriber.
+     * @param changes The changes of one recalculation, at most one per cell.
+     */
+    void offer(List<CellChange> changes) {
+        for (FeedSubscription subscription : subscriptions) {
+            subscription.merge(changes);
+        }
+    }
+
+    private final class FeedSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super List<CellChange>> subscriber;
+        private final Region region;
+        /** The merged changes not yet delivered, keyed by cell, guarded by this. */
+        private final Map<Long, CellChange> pending = new LinkedHashMap<>();
+        private long demand;
+        private boolean cancelled;
+        /** Whether a delivery is running or queued on the executor. */
+        private boolean delivering;
+
+        FeedSubscription(Flow.Subscriber<? super List<CellChange>> subscriber, Region region) {
+            this.subscriber = subscriber;
+            this.region = region;
+        }
+
+        void merge(List<CellChange> changes) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                for (CellChange change : changes) {
+                    if (region != null && !region.contains(change.row(), change.column())) {
+                        continue;
+                    }
+                    long key = ((long) change.row() << Integer.SIZE) | change.column();
+                    CellChange earlier = pending.remove(key);
+                    if (earlier != null) {
+                        change = new CellChange(change.row(), change.column(), earlier.previous(), change.value());
+                    }
+                    if (!change.previous().equals(change.value())) {
+                        pending.put(key, change);
+                    }
+                }
+            }
+            deliver();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requires: n > 0"));
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            deliver();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Start delivering on the executor if there is a batch to deliver and nothing is delivering.
+         */
+        private void deliver() {
+            synchronized (this) {
+                if (delivering || !ready()) {
+                    return;
+                }
+                delivering = true;
+            }
+            executor.execute(this);
+        }
+
+        private boolean ready() {
+            return !cancelled && demand > 0 && !pending.isEmpty();
+        }
+
+        /**
+         * Deliver batches until there is no demand or nothing left to deliver.
+         * Only one thread runs this at a time, so batches are delivered in order.
+         */
+        @Override
+        public void run() {
+            while (true) {
+                List<CellChange> batch;
+                synchronized (this) {
+                    if (!ready()) {
+                        delivering = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    demand--;
+                }
+                try {
+                    subscriber.onNext(batch);
+                } catch (RuntimeException e) {
+                    cancel();
+                    synchronized (this) {
+                        delivering = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
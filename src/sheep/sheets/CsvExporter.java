@@ -0,0 +1,197 @@
+package sheep.sheets;
+
+import sheep.core.SheetView;
+import sheep.events.ValueBatchEvent;
+import sheep.expression.Expression;
+import sheep.expression.basic.Constant;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams the contents of a sheet to a channel as comma or tab separated values.
+ * Each row of the sheet is written as a line and each column as a field.
+ * Cells are encoded directly into a reusable buffer which is flushed to the channel
+ * whenever it fills, so the sheet is never rendered into memory as a whole.
+ * Numeric values of a {@link Sheet} are encoded straight from their long value.
+ * An exporter reuses its buffer and must not be shared between threads.
+ */
+public class CsvExporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final byte separator;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+
+    /**
+     * Construct a new exporter that writes comma separated values.
+     */
+    public CsvExporter() {
+        this(',');
+    }
+
+    /**
+     * Construct a new exporter.
+     * @param separator The character separating fields within a line, e.g. ',' or '\t'.
+     * Requires:
+     * separator is an ASCII character other than '"', '\r' and '\n'.
+     */
+    public CsvExporter(char separator) {
+        if (separator > 127 || separator == '"' || separator == '\r' || separator == '\n') {
+            throw new IllegalArgumentException("Requires: separator is a plain ASCII character");
+        }
+        this.separator = (byte) separator;
+    }
+
+    /**
+     * Write the evaluated value of every cell in the sheet to the channel.
+     * @param sheet The sheet to export.
+     * @param channel The channel to write to, which is not closed.
+     * @throws IOException If writing to the channel fails.
+     */
+    public void writeValues(Sheet sheet, WritableByteChannel channel) throws IOException {
+        ValueBatchEvent event = new ValueBatchEvent();
+        event.begin();
+        int columns = sheet.getColumns();
+        long[] numbers = new long[columns];
+        long[] valid = new long[(columns + Long.SIZE - 1) / Long.SIZE];
+        String[] text = new String[1];
+        for (int row = 0; row < sheet.getRows(); row++) {
+            // Numbers are written without rendering a string, only other cells are read as text.
+            sheet.readNumbers(row, 0, 1, columns, numbers, valid);
+            for (int column = 0; column < columns; column++) {
+                if (column > 0) {
+                    put(channel, separator);
+                }
+                if ((valid[column >>> 6] & (1L << column)) != 0) {
+                    putNumber(channel, numbers[column]);
+                } else {
+                    sheet.readText(row, column, 1, 1, text);
+                    putField(channel, text[0]);
+                }
+            }
+            put(channel, (byte) '\n');
+        }
+        flush(channel);
+        event.report("export", 0, 0, sheet.getRows(), sheet.getColumns());
+    }
+
+    /**
+     * Write the formula of every cell in the sheet to the channel.
+     * The result can be loaded back into a sheet with {@link CsvImporter}.
+     * @param sheet The sheet to export.
+     * @param channel The channel to write to, which is not closed.
+     * @throws IOException If writing to the channel fails.
+     */
+    public void writeFormulas(Sheet sheet, WritableByteChannel channel) throws IOException {
+        for (int row = 0; row < sheet.getRows(); row++) {
+            for (int column = 0; column < sheet.getColumns(); column++) {
+                if (column > 0) {
+                    put(channel, separator);
+                }
+                Expression formula = sheet.formulaAt(new CellLocation(row, column));
+                if (formula instanceof Constant constant) {
+                    putNumber(channel, constant.getValue());
+                } else {
+                    putField(channel, formula.render());
+                }
+            }
+            put(channel, (byte) '\n');
+        }
+        flush(channel);
+    }
+
+    /**
+     * Write the rendered value of every cell of any view to the channel.
+     * @param view The view to export.
+     * @param channel The channel to write to, which is not closed.
+     * @throws IOException If writing to the channel fails.
+     */
+    public void writeValues(SheetView view, WritableByteChannel channel) throws IOException {
+        ValueBatchEvent event = new ValueBatchEvent();
+        event.begin();
+        String[] text = new String[view.getColumns()];
+        for (int row = 0; row < view.getRows(); row++) {
+            view.readText(row, 0, 1, text.length, text);
+            for (int column = 0; column < text.length; column++) {
+                if (column > 0) {
+                    put(channel, separator);
+                }
+                putField(channel, text[column]);
+            }
+            put(channel, (byte) '\n');
+        }
+        flush(channel);
+        event.report("export", 0, 0, view.getRows(), view.getColumns());
+    }
+
+    private void put(WritableByteChannel channel, byte value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush(channel);
+        }
+        buffer.put(value);
+    }
+
+    private void putNumber(WritableByteChannel channel, long value) throws IOException {
+        if (buffer.remaining() < digits.length) {
+            flush(channel);
+        }
+        if (value == Long.MIN_VALUE) {
+            buffer.put(String.valueOf(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, start, digits.length - start);
+    }
+
+    /**
+     * Write a field, quoting it if it contains the separator, a quote, or a line break.
+     */
+    private void putField(WritableByteChannel channel, String field) throws IOException {
+        boolean quoted = false;
+        boolean ascii = true;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == separator || c == '"' || c == '\n' || c == '\r') {
+                quoted = true;
+            } else if (c > 127) {
+                ascii = false;
+            }
+        }
+        if (!ascii) {
+            field = new String(field.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+        }
+
+        if (quoted) {
+            put(channel, (byte) '"');
+        }
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                put(channel, (byte) '"');
+            }
+            put(channel, (byte) c);
+        }
+        if (quoted) {
+            put(channel, (byte) '"');
+        }
+    }
+
+    private void flush(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,249 @@
+package sheep.sheets;
+
+import sheep.core.UpdateResponse;
+import sheep.expression.Expression;
+import sheep.parsing.ParseException;
+import sheep.parsing.Parser;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams comma separated values from a file into a {@link Sheet}.
+ * The file is read in large chunks, batches of lines are parsed into expressions
+ * by a pool of worker threads, and the parsed cells are inserted into the sheet
+ * in file order. The sheet is recalculated once, after every cell has been inserted.
+ * Only a fixed number of batches are held in memory at any time,
+ * so memory use does not grow with the size of the file.
+ * A line break inside a quoted field is part of the field, even when the field
+ * spans the boundary between two chunks of the file.
+ */
+public class CsvImporter {
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int BATCH_LINES = 4096;
+
+    private final Parser parser;
+    private final char separator;
+    private final int threads;
+
+    /**
+     * A batch of consecutive lines after parsing.
+     * @param row The row of the first line in the batch.
+     * @param cells The parsed expressions of each line, null where a field could not be parsed.
+     * @param failure The first field in the batch that could not be parsed, or null.
+     */
+    private record Batch(int row, Expression[][] cells, String failure) {
+
+    }
+
+    /**
+     * Construct a new comma separated importer that parses on every available processor.
+     * @param parser A parser to use for parsing each field of the file.
+     */
+    public CsvImporter(Parser parser) {
+        this(parser, ',', Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct a new importer.
+     * @param parser A parser to use for parsing each field of the file.
+     * @param separator The character separating fields within a line, e.g. ',' or '\t'.
+     * @param threads The number of worker threads used for parsing.
+     * Requires:
+     * threads > 0
+     */
+    public CsvImporter(Parser parser, char separator, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Requires: threads > 0");
+        }
+        this.parser = parser;
+        this.separator = separator;
+        this.threads = threads;
+    }
+
+    /**
+     * Insert the contents of the file into the sheet, starting at the top left cell.
+     * Each line of the file is a row and each field of a line is a column.
+     * Fields may be quoted with '"' to contain the separator or a line break.
+     * Lines and fields beyond the dimensions of the sheet are ignored.
+     * If a field cannot be parsed, the cell is left unchanged, the remaining fields are still imported,
+     * and the response fails with "Unable to parse: [field]" for the first such field.
+     * @param sheet The sheet to import into.
+     * @param path The file to read.
+     * @return Information about the status of the import.
+     * @throws IOException If the file cannot be read.
+     */
+    public UpdateResponse load(Sheet sheet, Path path) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        Deque<Future<Batch>> inFlight = new ArrayDeque<>();
+        String failure = null;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+            List<String> lines = new ArrayList<>(BATCH_LINES);
+            int row = 0;
+            boolean finished = false;
+
+            while (!finished && row + lines.size() < sheet.getRows()) {
+                finished = channel.read(buffer) < 0;
+                buffer.flip();
+
+                // The buffer always begins at the start of a line, so scanning it from the start
+                // sees every quote of a line that was cut off by the end of the previous chunk.
+                int start = buffer.position();
+                boolean quoted = false;
+                for (int i = start; i < buffer.limit(); i++) {
+                    byte b = buffer.get(i);
+                    if (b == '"') {
+                        quoted = !quoted;
+                    } else if (b == '\n' && !quoted) {
+                        lines.add(decode(buffer, start, i));
+                        start = i + 1;
+                    }
+                }
+                if (finished && start < buffer.limit()) {
+                    lines.add(decode(buffer, start, buffer.limit()));
+                    start = buffer.limit();
+                }
+                buffer.position(start);
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    // A single line is longer than the buffer.
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+
+                while (lines.size() >= BATCH_LINES || (finished && !lines.isEmpty())) {
+                    int count = Math.min(lines.size(), BATCH_LINES);
+                    List<String> batch = new ArrayList<>(lines.subList(0, count));
+                    lines.subList(0, count).clear();
+                    int batchRow = row;
+                    inFlight.add(workers.submit(() -> parse(batchRow, batch, sheet.getColumns())));
+                    row += count;
+
+                    if (inFlight.size() >= threads * 2) {
+                        failure = insert(sheet, inFlight.poll(), failure);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                int batchRow = row;
+                inFlight.add(workers.submit(() -> parse(batchRow, lines, sheet.getColumns())));
+            }
+            while (!inFlight.isEmpty()) {
+                failure = insert(sheet, inFlight.poll(), failure);
+            }
+        } finally {
+            workers.shutdownNow();
+            sheet.recalculate();
+        }
+
+        if (failure != null) {
+            return UpdateResponse.fail("Unable to parse: " + failure);
+        }
+        return UpdateResponse.success();
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        return new String(buffer.array(), buffer.arrayOffset() + start,
+                end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Wait for a batch to be parsed and insert its cells into the sheet without recalculating.
+     * @return The first failure of the import so far.
+     */
+    private String insert(Sheet sheet, Future<Batch> pending, String failure) throws IOException {
+        Batch batch;
+        try {
+            batch = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while importing");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+
+        Expression[][] cells = batch.cells();
+        for (int i = 0; i < cells.length && batch.row() + i < sheet.getRows(); i++) {
+            for (int column = 0; column < cells[i].length; column++) {
+                if (cells[i][column] != null) {
+                    sheet.insert(new CellLocation(batch.row() + i, column), cells[i][column]);
+                }
+            }
+        }
+        return failure == null ? batch.failure() : failure;
+    }
+
+    private Batch parse(int row, List<String> lines, int columns) {
+        Expression[][] cells = new Expression[lines.size()][];
+        String failure = null;
+        List<String> fields = new ArrayList<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            split(lines.get(i), fields);
+            int count = Math.min(fields.size(), columns);
+            cells[i] = new Expression[count];
+            for (int column = 0; column < count; column++) {
+                try {
+                    cells[i][column] = parser.parse(fields.get(column));
+                } catch (ParseException e) {
+                    if (failure == null) {
+                        failure = fields.get(column);
+                    }
+                }
+            }
+        }
+        return new Batch(row, cells, failure);
+    }
+
+    /**
+     * Split a line into its fields.
+     * Fields may be quoted with '"' to contain the separator, with '""' representing a literal quote.
+     */
+    private void split(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+}
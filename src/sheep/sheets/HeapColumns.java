@@ -0,0 +1,56 @@
+package sheep.sheets;
+
+import sheep.expression.Expression;
+
+import java.util.Arrays;
+
+/**
+ * Value columns stored in arrays on the Java heap, see {@link ValueStorage#HEAP}.
+ */
+final class HeapColumns extends ValueColumns {
+    /** The numbers of each chunk of each column, indexed by column then chunk. */
+    private final long[][][] numbers;
+    /** The tags of each chunk of each column, 32 cells to a long. */
+    private final long[][][] tags;
+
+    HeapColumns(int rows, int columns, Expression fill) {
+        super(fill);
+        this.numbers = new long[columns][chunks(rows)][];
+        this.tags = new long[columns][chunks(rows)][];
+    }
+
+    @Override
+    int tag(int row, int column) {
+        long[] chunk = tags[column][chunk(row)];
+        if (chunk == null) {
+            return fillTag;
+        }
+        return (int) (chunk[offset(row) >>> 5] >>> tagShift(row)) & 3;
+    }
+
+    @Override
+    long number(int row, int column) {
+        long[] chunk = numbers[column][chunk(row)];
+        return chunk == null ? fillNumber : chunk[offset(row)];
+    }
+
+    @Override
+    protected boolean isAllocated(int row, int column) {
+        return tags[column][chunk(row)] != null;
+    }
+
+    @Override
+    protected void set(int row, int column, int tag, long number) {
+        int chunk = chunk(row);
+        if (tags[column][chunk] == null) {
+            tags[column][chunk] = new long[CHUNK / 32];
+            numbers[column][chunk] = new long[CHUNK];
+            Arrays.fill(tags[column][chunk], fillTags());
+            Arrays.fill(numbers[column][chunk], fillNumber);
+        }
+        long[] words = tags[column][chunk];
+        int word = offset(row) >>> 5;
+        words[word] = (words[word] & ~(3L << tagShift(row))) | ((long) tag << tagShift(row));
+        numbers[column][chunk][offset(row)] = number;
+    }
+}
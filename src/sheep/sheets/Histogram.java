@@ -0,0 +1,90 @@
+package sheep.sheets;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values with power of two buckets.
+ * Recording is lock free and uses striped counters, so it can be called
+ * from many threads under load. Percentiles are accurate to within a factor of two.
+ */
+class Histogram {
+    private final LongAdder[] buckets = new LongAdder[Long.SIZE + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    Histogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a value, negative values are recorded as 0.
+     * @param value The value to record.
+     */
+    void record(long value) {
+        value = Math.max(0, value);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * The number of values recorded.
+     * @return The number of values recorded.
+     */
+    long count() {
+        return count.sum();
+    }
+
+    /**
+     * The mean of the recorded values, or 0 if none have been recorded.
+     * @return The mean of the recorded values.
+     */
+    double mean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * The largest recorded value.
+     * @return The largest recorded value, or 0 if none have been recorded.
+     */
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * An upper bound of the value below which the given fraction of recorded values fall.
+     * @param fraction The percentile as a fraction, e.g. 0.99.
+     * @return The upper bound of the bucket containing the percentile, or 0 if none have been recorded.
+     */
+    long percentile(double fraction) {
+        long total = count.sum();
+        long target = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket].sum();
+            if (seen >= target && seen > 0) {
+                long upper = bucket == 0 ? 0 : bucket >= Long.SIZE ? Long.MAX_VALUE : (1L << bucket) - 1;
+                return Math.min(upper, max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Forget all recorded values.
+     */
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
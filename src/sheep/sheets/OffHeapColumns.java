@@ -0,0 +1,104 @@
+package sheep.sheets;
+
+import sheep.expression.Expression;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Value columns stored outside the Java heap, see {@link ValueStorage#OFF_HEAP}.
+ * <p>
+ * Chunks are carved out of direct buffers, called slabs, of up to {@value #SLAB_BYTES} bytes.
+ * Each chunk holds {@value #CHUNK} numbers followed by their tags. The heap only holds the
+ * slabs and the index of each chunk, an int per {@value #CHUNK} cells.
+ * Chunks are never freed, the slabs are released when the sheet is garbage collected.
+ */
+final class OffHeapColumns extends ValueColumns {
+    private static final int SLAB_BYTES = 64 << 20;
+    private static final int TAGS_OFFSET = CHUNK * Long.BYTES;
+    private static final int CHUNK_BYTES = TAGS_OFFSET + CHUNK / 4;
+
+    /** The number of chunks in each slab. */
+    private final int slabChunks;
+    /** The id of each chunk of each column, indexed by column then chunk, 0 if not allocated. */
+    private final int[][] chunkIds;
+    private ByteBuffer[] slabs = new ByteBuffer[0];
+    private int allocated;
+
+    OffHeapColumns(int rows, int columns, Expression fill) {
+        super(fill);
+        this.chunkIds = new int[columns][chunks(rows)];
+        // Small sheets get a single slab just large enough for every chunk.
+        this.slabChunks = (int) Math.max(1, Math.min(SLAB_BYTES / CHUNK_BYTES,
+                (long) columns * chunks(rows)));
+    }
+
+    @Override
+    int tag(int row, int column) {
+        int id = chunkIds[column][chunk(row)];
+        if (id == 0) {
+            return fillTag;
+        }
+        long word = slab(id).getLong(base(id) + TAGS_OFFSET + (offset(row) >>> 5) * Long.BYTES);
+        return (int) (word >>> tagShift(row)) & 3;
+    }
+
+    @Override
+    long number(int row, int column) {
+        int id = chunkIds[column][chunk(row)];
+        return id == 0 ? fillNumber : slab(id).getLong(base(id) + offset(row) * Long.BYTES);
+    }
+
+    @Override
+    protected boolean isAllocated(int row, int column) {
+        return chunkIds[column][chunk(row)] != 0;
+    }
+
+    @Override
+    protected void set(int row, int column, int tag, long number) {
+        int id = chunkIds[column][chunk(row)];
+        if (id == 0) {
+            id = allocate();
+            chunkIds[column][chunk(row)] = id;
+        }
+        ByteBuffer slab = slab(id);
+        int tags = base(id) + TAGS_OFFSET + (offset(row) >>> 5) * Long.BYTES;
+        slab.putLong(tags, (slab.getLong(tags) & ~(3L << tagShift(row))) | ((long) tag << tagShift(row)));
+        slab.putLong(base(id) + offset(row) * Long.BYTES, number);
+    }
+
+    /**
+     * Allocate a chunk filled with the fill value, adding a slab if the last one is full.
+     * @return The id of the new chunk.
+     */
+    private int allocate() {
+        if (allocated == slabs.length * slabChunks) {
+            slabs = Arrays.copyOf(slabs, slabs.length + 1);
+            slabs[slabs.length - 1] = ByteBuffer.allocateDirect(slabChunks * CHUNK_BYTES)
+                    .order(ByteOrder.nativeOrder());
+        }
+        int id = ++allocated;
+        ByteBuffer slab = slab(id);
+        int base = base(id);
+        if (fillNumber != 0) {
+            for (int i = 0; i < CHUNK; i++) {
+                slab.putLong(base + i * Long.BYTES, fillNumber);
+            }
+        }
+        if (fillTag != EMPTY) {
+            for (int i = 0; i < CHUNK / 32; i++) {
+                slab.putLong(base + TAGS_OFFSET + i * Long.BYTES, fillTags());
+            }
+        }
+        return id;
+    }
+
+    private ByteBuffer slab(int id) {
+        return slabs[(id - 1) / slabChunks];
+    }
+
+    private int base(int id) {
+        return ((id - 1) % slabChunks) * CHUNK_BYTES;
+    }
+}
@@ -0,0 +1,166 @@
+package sheep.sheets;
+
+import sheep.expression.Expression;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records how often, and for how long, the formulas of a {@link Sheet} are evaluated.
+ * <p>
+ * Profiling is off until enabled with {@link Sheet#setProfiling(boolean)}.
+ * While enabled, every evaluation of a cell's formula is timed and attributed both to
+ * the cell and to the class of its formula. Dependencies are evaluated separately,
+ * so the time of a cell excludes the time spent evaluating the cells it uses.
+ * <p>
+ * The profile can be read as a ranked report of the hottest cells and expression types,
+ * or as collapsed stacks of dependency paths suitable for flame graph tools.
+ */
+public class Profiler {
+    /** The maximum number of cells in one collapsed stack. */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * The evaluations of one cell or expression type.
+     * @param name The cell or expression type that was evaluated.
+     * @param count The number of evaluations.
+     * @param nanos The total time of all evaluations in nanoseconds.
+     */
+    public record Entry(String name, long count, long nanos) {
+
+    }
+
+    private final Sheet sheet;
+    /** Evaluation count and total nanoseconds of each cell. */
+    private final Map<CellLocation, long[]> cells = new HashMap<>();
+    /** Evaluation count and total nanoseconds of each formula class. */
+    private final Map<Class<?>, long[]> types = new HashMap<>();
+
+    Profiler(Sheet sheet) {
+        this.sheet = sheet;
+    }
+
+    synchronized void record(CellLocation location, Expression formula, long nanos) {
+        long[] cell = cells.computeIfAbsent(location, k -> new long[2]);
+        cell[0]++;
+        cell[1] += nanos;
+        long[] type = types.computeIfAbsent(formula.getClass(), k -> new long[2]);
+        type[0]++;
+        type[1] += nanos;
+    }
+
+    /**
+     * Forget every recorded evaluation.
+     */
+    public synchronized void reset() {
+        cells.clear();
+        types.clear();
+    }
+
+    /**
+     * The cells that took the longest to evaluate, slowest first.
+     * @param limit The maximum number of cells to return.
+     * @return The evaluations of at most limit cells, ordered by total time.
+     */
+    public synchronized List<Entry> hotCells(int limit) {
+        List<Entry> entries = new ArrayList<>(cells.size());
+        for (Map.Entry<CellLocation, long[]> cell : cells.entrySet()) {
+            entries.add(new Entry(cell.getKey().toString(), cell.getValue()[0], cell.getValue()[1]));
+        }
+        return ranked(entries, limit);
+    }
+
+    /**
+     * The types of formula that took the longest to evaluate, slowest first.
+     * @return The evaluations of every type of formula, ordered by total time.
+     */
+    public synchronized List<Entry> hotTypes() {
+        List<Entry> entries = new ArrayList<>(types.size());
+        for (Map.Entry<Class<?>, long[]> type : types.entrySet()) {
+            entries.add(new Entry(type.getKey().getSimpleName(), type.getValue()[0], type.getValue()[1]));
+        }
+        return ranked(entries, entries.size());
+    }
+
+    private static List<Entry> ranked(List<Entry> entries, int limit) {
+        entries.sort((a, b) -> Long.compare(b.nanos(), a.nanos()));
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    /**
+     * A human readable report of the hottest cells, with their formulas, and expression types.
+     * @param limit The maximum number of cells to include.
+     * @return The report.
+     */
+    public synchronized String report(int limit) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-8s %12s %12s %10s  %s%n",
+                "Cell", "Evaluations", "Total (ms)", "Mean (us)", "Formula"));
+        for (Entry entry : hotCells(limit)) {
+            String formula = sheet.formulaAt(CellLocation.maybeReference(entry.name()).orElseThrow()).render();
+            appendEntry(report, entry).append("  ").append(formula).append(System.lineSeparator());
+        }
+        report.append(System.lineSeparator());
+        report.append(String.format("%-8s %12s %12s %10s%n", "Type", "Evaluations", "Total (ms)", "Mean (us)"));
+        for (Entry entry : hotTypes()) {
+            appendEntry(report, entry).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    private static StringBuilder appendEntry(StringBuilder out, Entry entry) {
+        return out.append(String.format("%-8s %12d %12.3f %10.3f", entry.name(), entry.count(),
+                entry.nanos() / 1e6, entry.nanos() / 1e3 / entry.count()));
+    }
+
+    /**
+     * Write the profile as collapsed stacks, one line per evaluated cell, in the format
+     * read by flame graph tools such as flamegraph.pl.
+     * Each line is the dependency path leading to a cell, separated by ';', followed by
+     * the total nanoseconds spent evaluating that cell.
+     * A cell used by many paths is attributed to the path through its slowest dependency,
+     * and paths are truncated to the nearest {@value #MAX_DEPTH} cells.
+     * @param out Where to write the stacks.
+     * @throws IOException If the stacks cannot be written.
+     */
+    public synchronized void writeCollapsedStacks(Appendable out) throws IOException {
+        for (Map.Entry<CellLocation, long[]> cell : cells.entrySet()) {
+            List<CellLocation> path = new ArrayList<>();
+            Set<CellLocation> seen = new HashSet<>();
+            CellLocation location = cell.getKey();
+            while (location != null && path.size() < MAX_DEPTH && seen.add(location)) {
+                path.add(location);
+                location = slowestDependency(location);
+            }
+            if (location != null && path.size() == MAX_DEPTH) {
+                out.append("...;");
+            }
+            for (int i = path.size() - 1; i >= 0; i--) {
+                out.append(path.get(i).toString());
+                out.append(i == 0 ? ' ' : ';');
+            }
+            out.append(Long.toString(cell.getValue()[1])).append('\n');
+        }
+    }
+
+    /**
+     * The profiled dependency of a cell with the largest total time, or null if it has none.
+     */
+    private CellLocation slowestDependency(CellLocation location) {
+        CellLocation slowest = null;
+        long slowestNanos = -1;
+        for (CellLocation dependency : sheet.dependenciesOf(location)) {
+            long[] profile = cells.get(dependency);
+            if (profile != null && profile[1] > slowestNanos) {
+                slowest = dependency;
+                slowestNanos = profile[1];
+            }
+        }
+        return slowest;
+    }
+}
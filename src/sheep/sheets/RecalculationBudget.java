@@ -0,0 +1,121 @@
+package sheep.sheets;
+
+import java.time.Duration;
+
+/**
+ * The most work a single recalculation of a {@link Sheet} may do before it is interrupted,
+ * set with {@link Sheet#setRecalculationBudget(RecalculationBudget)}.
+ * <p>
+ * A budget limits the time a recalculation may take, the number of cells it may evaluate,
+ * or both, and may carry a {@link CancellationToken} to interrupt it on demand.
+ * When a recalculation is interrupted, the {@link Overrun} of the budget decides what happens
+ * to the cells evaluated so far.
+ * A budget is immutable, so one budget may be shared by many sheets.
+ */
+public final class RecalculationBudget {
+    /**
+     * What to do with a recalculation that is interrupted before it evaluates every cell.
+     */
+    public enum Overrun {
+        /**
+         * Restore the value of every cell evaluated by the recalculation.
+         * An interrupted update is undone and fails.
+         */
+        ROLLBACK,
+        /**
+         * Keep the values evaluated so far and leave the remaining cells dirty,
+         * to be evaluated by the next recalculation.
+         * An interrupted update succeeds but is reported as incomplete.
+         */
+        LEAVE_DIRTY
+    }
+
+    /** A budget that never interrupts a recalculation. */
+    public static final RecalculationBudget UNLIMITED =
+            new RecalculationBudget(0, 0, Overrun.LEAVE_DIRTY, null);
+
+    private final long timeoutNanos;
+    private final int maxCells;
+    private final Overrun overrun;
+    private final CancellationToken token;
+
+    /**
+     * Construct a budget limiting the time and number of cells of a recalculation.
+     *
+     * @param timeout The longest a recalculation may take, or null for no limit.
+     * @param maxCells The most cells a recalculation may evaluate, or 0 for no limit.
+     * @param overrun What to do when the recalculation is interrupted.
+     * @param token A token to interrupt recalculations on demand, or null for none.
+     * @requires maxCells &gt;= 0 &amp;&amp; overrun != null
+     */
+    public RecalculationBudget(Duration timeout, int maxCells, Overrun overrun, CancellationToken token) {
+        this(timeout == null ? 0 : Math.max(1, timeout.toNanos()), maxCells, overrun, token);
+    }
+
+    private RecalculationBudget(long timeoutNanos, int maxCells, Overrun overrun, CancellationToken token) {
+        if (maxCells < 0 || overrun == null) {
+            throw new IllegalArgumentException("Requires: maxCells >= 0 && overrun != null");
+        }
+        this.timeoutNanos = timeoutNanos;
+        this.maxCells = maxCells;
+        this.overrun = overrun;
+        this.token = token;
+    }
+
+    /**
+     * The longest a recalculation may take, or null if unlimited.
+     * @return The timeout of a recalculation.
+     */
+    public Duration getTimeout() {
+        return timeoutNanos == 0 ? null : Duration.ofNanos(timeoutNanos);
+    }
+
+    /**
+     * The most cells a recalculation may evaluate, or 0 if unlimited.
+     * @return The cell limit of a recalculation.
+     */
+    public int getMaxCells() {
+        return maxCells;
+    }
+
+    /**
+     * What happens to a recalculation that is interrupted.
+     * @return The overrun policy of this budget.
+     */
+    public Overrun getOverrun() {
+        return overrun;
+    }
+
+    /**
+     * The token that interrupts recalculations on demand, or null if there is none.
+     * @return The cancellation token of this budget.
+     */
+    public CancellationToken getToken() {
+        return token;
+    }
+
+    /**
+     * Whether this budget can never interrupt a recalculation.
+     */
+    boolean isUnlimited() {
+        return timeoutNanos == 0 && maxCells == 0 && token == null;
+    }
+
+    /**
+     * Why a recalculation must stop, or null if it may evaluate another cell.
+     * @param start The value of System.nanoTime() when the recalculation started.
+     * @param evaluated The number of cells evaluated so far.
+     */
+    String exhausted(long start, int evaluated) {
+        if (token != null && token.isCancelled()) {
+            return "Recalculation cancelled";
+        }
+        if (maxCells > 0 && evaluated >= maxCells) {
+            return "Recalculation exceeded " + maxCells + " cells";
+        }
+        if (timeoutNanos > 0 && System.nanoTime() - start >= timeoutNanos) {
+            return "Recalculation exceeded " + Duration.ofNanos(timeoutNanos).toMillis() + " ms";
+        }
+        return null;
+    }
+}
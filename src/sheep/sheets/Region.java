@@ -0,0 +1,43 @@
+package sheep.sheets;
+
+/**
+ * A rectangular region of cells within a sheet.
+ * @param row The row index of the top left cell of the region.
+ * @param column The column index of the top left cell of the region.
+ * @param rows The number of rows in the region.
+ * @param columns The number of columns in the region.
+ */
+public record Region(int row, int column, int rows, int columns) {
+
+    /**
+     * Construct a new region.
+     * Requires:
+     * row &gt;= 0, column &gt;= 0, rows &gt;= 0, columns &gt;= 0
+     */
+    public Region {
+        if (row < 0 || column < 0 || rows < 0 || columns < 0) {
+            throw new IllegalArgumentException(
+                    "Requires: row >= 0, column >= 0, rows >= 0, columns >= 0");
+        }
+    }
+
+    /**
+     * Whether the cell at the given row and column is within this region.
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     * @return True if the cell is within this region.
+     */
+    public boolean contains(int row, int column) {
+        return row >= this.row && row < this.row + this.rows
+                && column >= this.column && column < this.column + this.columns;
+    }
+
+    /**
+     * Whether the given cell location is within this region.
+     * @param location A cell location.
+     * @return True if the cell is within this region.
+     */
+    public boolean contains(CellLocation location) {
+        return contains(location.getRow(), location.getColumn());
+    }
+}
@@ -1,17 +1,31 @@
 package sheep.sheets;
 
-import sheep.core.SheetUpdate;
+import sheep.core.BatchUpdate;
+import sheep.core.CellChange;
+import sheep.core.CellListener;
+import sheep.core.ObservableSheet;
 import sheep.core.SheetView;
 import sheep.core.UpdateResponse;
+import sheep.core.UpdateStatistics;
 import sheep.core.ViewElement;
+import sheep.events.RecalculationEvent;
+import sheep.events.UpdateEvent;
+import sheep.events.ValueBatchEvent;
 import sheep.expression.Expression;
 import sheep.expression.TypeError;
 import sheep.expression.arithmetic.Arithmetic;
+import sheep.expression.basic.Constant;
+import sheep.expression.basic.ErrorValue;
 import sheep.parsing.ParseException;
 import sheep.parsing.Parser;
 
-import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Spreadsheet that evaluates its expressions and updates dependant cells.
@@ -22,38 +36,130 @@ import java.util.*;
  * The formula is what has been written in the cell by a
  * user whereas the value is what value the cell contains.
  */
-public class Sheet implements SheetView, SheetUpdate {
+public class Sheet implements SheetView, BatchUpdate, ObservableSheet {
+    /** The number of edits after which a deferred sheet recalculates by default. */
+    public static final int DEFAULT_DEFERRED_EDITS = 1000;
+    /** The time without edits after which a deferred sheet recalculates by default. */
+    public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofMillis(250);
+
+    /** The longest a background recalculation holds the lock of a lazy sheet at a time. */
+    private static final long SLICE_NANOS = 5_000_000;
+    /** The number of cells read during an incomplete recalculation that are remembered. */
+    private static final int REQUESTED = 64;
+
+    /** Runs the quiet period and background recalculations of every sheet. */
+    private static final ScheduledExecutorService BACKGROUND = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "sheet-background-recalculation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private Parser parser;
     private Map<String, Expression> builtins;
     private Expression defaultExpression;
-    private CellLocation[][] cells;
     private int rows;
     private int columns;
 
+    /** The formula of every cell that does not hold the default expression. */
     private Map<CellLocation, Expression> updatedCells = new HashMap<>();
-    private Map<String, Expression> state = new HashMap<>();
+    private final ValueStorage storage;
+    /** Whether cells holding the default expression are left out of updatedCells. */
+    private final boolean sparse;
+    private ValueColumns values;
+    /** The built-ins and the value of every cell, by identifier, as seen by formulas. */
+    private CellState state = new CellState();
+    /** The cells whose formulas refer to each cell, only references to cells within the sheet are kept. */
+    private Map<CellLocation, Set<CellLocation>> usages = new HashMap<>();
+    private Set<CellLocation> dirty = new HashSet<>();
+
+    private boolean lazy;
+    private Set<CellLocation> stale = new HashSet<>();
+    private List<Region> viewports = new ArrayList<>();
+    /** Cells read while cells were dirty, as a ring buffer, evaluated first by the next recalculation. */
+    private final CellLocation[] requested = new CellLocation[REQUESTED];
+    private int requestedCount;
+    private int requestedNext;
+
+    private boolean background;
+    private boolean backgroundScheduled;
+    /** Stale cells waiting for a background recalculation of a lazy sheet. */
+    private Deque<CellLocation> backlog = new ArrayDeque<>();
+
+    private List<CellListener> listeners = new ArrayList<>();
+    private Set<CellLocation> changed = new HashSet<>();
+    /** The changed cells reported by the last call to publish. */
+    private List<CellLocation> published = List.of();
+    /** The number of cells evaluated since the start of the last update. */
+    private int recalculated;
+    private boolean collectingStatistics;
+
+    private RecalculationBudget budget = RecalculationBudget.UNLIMITED;
+    /** Why the last recalculation was interrupted, or null if it ran to completion. */
+    private String interruption;
+
+    private CalculationMode mode = CalculationMode.AUTOMATIC;
+    private int deferredEdits = DEFAULT_DEFERRED_EDITS;
+    private long quietNanos = DEFAULT_QUIET_PERIOD.toNanos();
+    /** The number of edits made since the last recalculation. */
+    private int edits;
+    private long lastEdit;
+    /** The scheduled quiet period recalculation, or null if none is scheduled. */
+    private ScheduledFuture<?> deferral;
+
+    private final ChangeFeed feed = new ChangeFeed(ForkJoinPool.commonPool());
+    /** The value of each cell stored since the last batch of the change feed, before it was stored. */
+    private Map<CellLocation, Expression> unreported = new HashMap<>();
+
+    private final SheetMetrics metrics = new SheetMetrics();
+    private final Profiler profiler = new Profiler(this);
+    private boolean profiling;
 
     Sheet(
             Parser parser, Map<String, Expression> builtins,
             Expression defaultExpression, int rows, int columns) {
+        this(parser, builtins, defaultExpression, rows, columns, ValueStorage.HEAP);
+    }
+
+    Sheet(
+            Parser parser, Map<String, Expression> builtins,
+            Expression defaultExpression, int rows, int columns, ValueStorage storage) {
         this.parser = parser;
         this.builtins = builtins;
         this.defaultExpression = defaultExpression;
-        this.cells = new CellLocation[rows][columns];
         this.rows = rows;
         this.columns = columns;
+        this.storage = storage;
+        this.sparse = defaultExpression.dependencies().isEmpty();
 
+        // A default expression without dependencies has the same value in every cell,
+        // so cells holding it need neither a formula nor a value of their own.
+        if (sparse) {
+            this.values = ValueColumns.create(storage, rows, columns, defaultValue());
+            return;
+        }
+        this.values = ValueColumns.create(storage, rows, columns, null);
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < columns; j++) {
-                CellLocation location = new CellLocation(i, j);
-                Expression oldCell = updatedCells.get(location);
-                try {
-                    update(location, this.defaultExpression);
-                } catch (TypeError e) {
-                    updatedCells.put(location, oldCell);
-                }
+                insert(new CellLocation(i, j), this.defaultExpression);
             }
         }
+        recalculate();
+    }
+
+    private Expression defaultValue() {
+        try {
+            return defaultExpression.value(builtins);
+        } catch (TypeError e) {
+            return ErrorValue.VALUE;
+        }
+    }
+
+    /**
+     * Where this sheet keeps the evaluated values of its cells.
+     * @return The value storage of this sheet.
+     */
+    public ValueStorage getValueStorage() {
+        return storage;
     }
 
     /**
@@ -72,6 +178,359 @@ public class Sheet implements SheetView, SheetUpdate {
         return this.columns;
     }
 
+    /**
+     * Whether this sheet evaluates cells lazily.
+     * @return True if cells are only evaluated when read or within a viewport.
+     */
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * Switch between eager and lazy evaluation.
+     * An eager sheet evaluates every usage of a cell whenever the cell is updated.
+     * A lazy sheet only marks the usages as stale and evaluates a stale cell when its value
+     * is read, or immediately if it is within a registered viewport (see {@link #addViewport(Region)}).
+     * Evaluated values are remembered until one of their dependencies is updated.
+     * Switching from lazy to eager evaluates every stale cell.
+     * @param lazy True to evaluate lazily, false to evaluate eagerly.
+     */
+    public synchronized void setLazy(boolean lazy) {
+        this.lazy = lazy;
+        if (!lazy) {
+            dirty.addAll(stale);
+            stale.clear();
+            backlog.clear();
+            recalculate();
+        }
+    }
+
+    /**
+     * When this sheet recalculates the cells affected by an update.
+     * @return The calculation mode, {@link CalculationMode#AUTOMATIC} by default.
+     */
+    public CalculationMode getCalculationMode() {
+        return mode;
+    }
+
+    /**
+     * Change when this sheet recalculates the cells affected by an update.
+     * Switching to {@link CalculationMode#AUTOMATIC} recalculates every dirty cell.
+     * <p>
+     * A {@link CalculationMode#DEFERRED} sheet recalculates on a background thread once its
+     * quiet period has passed. That thread synchronizes on the sheet, so any other thread
+     * using a deferred sheet must also synchronize on it, and listeners may be notified
+     * on that thread.
+     * @param mode The calculation mode.
+     * @requires mode != null
+     */
+    public synchronized void setCalculationMode(CalculationMode mode) {
+        this.mode = Objects.requireNonNull(mode);
+        if (mode != CalculationMode.DEFERRED) {
+            cancelDeferral();
+        }
+        if (mode == CalculationMode.AUTOMATIC && !dirty.isEmpty()) {
+            recalculate();
+        }
+    }
+
+    /**
+     * When a {@link CalculationMode#DEFERRED} sheet recalculates.
+     * The sheet recalculates as soon as the given number of edits have been made since
+     * its last recalculation, or once no edit has been made for the quiet period,
+     * whichever comes first.
+     * @param edits The number of edits that trigger a recalculation.
+     * @param quietPeriod The time without edits that triggers a recalculation,
+     *                    or null to only recalculate after the number of edits.
+     * @requires edits &gt; 0
+     */
+    public synchronized void setDeferral(int edits, Duration quietPeriod) {
+        if (edits <= 0) {
+            throw new IllegalArgumentException("Requires: edits > 0");
+        }
+        this.deferredEdits = edits;
+        this.quietNanos = quietPeriod == null ? 0 : quietPeriod.toNanos();
+    }
+
+    /**
+     * The number of edits after which a deferred sheet recalculates.
+     * @return The number of edits that trigger a recalculation.
+     */
+    public int getDeferredEdits() {
+        return deferredEdits;
+    }
+
+    /**
+     * The time without edits after which a deferred sheet recalculates.
+     * @return The quiet period, or null if only the number of edits triggers a recalculation.
+     */
+    public Duration getQuietPeriod() {
+        return quietNanos == 0 ? null : Duration.ofNanos(quietNanos);
+    }
+
+    /**
+     * Whether this sheet completes outstanding evaluation on a background thread.
+     * @return True if background recalculation is enabled.
+     */
+    public boolean isBackgroundRecalculation() {
+        return background;
+    }
+
+    /**
+     * Start or stop completing outstanding evaluation on a background thread.
+     * <p>
+     * Every recalculation already evaluates the cells within the viewports first,
+     * along with the cells they depend upon, followed by the cells most recently read
+     * while the previous recalculation was incomplete. With background recalculation,
+     * the remaining work is then completed in the background:
+     * a lazy sheet evaluates its stale cells in slices of a few milliseconds,
+     * and an eager sheet continues a recalculation that exhausted its
+     * {@link RecalculationBudget} and left cells dirty.
+     * The lock of the sheet is released between slices, so reads and updates are served
+     * first and a read of a cell not yet evaluated evaluates it immediately.
+     * <p>
+     * As with {@link CalculationMode#DEFERRED}, the background thread synchronizes on the sheet,
+     * so any other thread using the sheet must also synchronize on it.
+     * @param background True to complete evaluation in the background, false to stop.
+     */
+    public synchronized void setBackgroundRecalculation(boolean background) {
+        this.background = background;
+        completeLater();
+    }
+
+    /**
+     * Schedule a background recalculation if enabled and there is outstanding work.
+     * An eager sheet only has outstanding work after a recalculation that left cells dirty,
+     * cells left dirty by a manual or deferred sheet wait for their recalculation.
+     */
+    private void completeLater() {
+        if (!background || backgroundScheduled) {
+            return;
+        }
+        boolean outstanding = lazy
+                ? !stale.isEmpty()
+                : interruption != null && !dirty.isEmpty()
+                        && budget.getOverrun() == RecalculationBudget.Overrun.LEAVE_DIRTY;
+        if (outstanding) {
+            backgroundScheduled = true;
+            BACKGROUND.execute(this::backgroundSlice);
+        }
+    }
+
+    /**
+     * Evaluate one slice of the outstanding work, then schedule the next slice.
+     * An eager sheet stops scheduling slices if a slice evaluates nothing,
+     * i.e. its budget is too small to make progress.
+     */
+    private void backgroundSlice() {
+        synchronized (this) {
+            backgroundScheduled = false;
+            if (!background) {
+                return;
+            }
+            if (lazy) {
+                long start = System.nanoTime();
+                if (backlog.isEmpty()) {
+                    backlog.addAll(stale);
+                }
+                while (!backlog.isEmpty() && System.nanoTime() - start < SLICE_NANOS) {
+                    CellLocation location = backlog.poll();
+                    if (stale.contains(location)) {
+                        resolveQuietly(location);
+                    }
+                }
+            } else {
+                int before = recalculated;
+                evaluate(false);
+                publish();
+                if (recalculated == before) {
+                    report();
+                    return;
+                }
+            }
+            report();
+            completeLater();
+        }
+    }
+
+    /**
+     * The metrics of this sheet's internals, which may be registered with JMX
+     * by calling {@link SheetMetrics#register()}, or by building the sheet with
+     * {@link SheetBuilder#registerMetrics(boolean)}.
+     * @return The metrics recorded by this sheet.
+     */
+    public SheetMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Release what this sheet holds outside of itself once it is no longer used:
+     * its metrics are removed from JMX and any scheduled deferred recalculation is cancelled.
+     * The sheet can still be read and updated afterwards.
+     */
+    public synchronized void dispose() {
+        metrics.unregister();
+        cancelDeferral();
+    }
+
+    /**
+     * Whether evaluations are being recorded by the profiler.
+     * @return True if profiling is enabled.
+     */
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    /**
+     * Start or stop recording every evaluation of a formula in the profiler.
+     * Stopping keeps what has been recorded so far.
+     * @param profiling True to record evaluations, false to stop recording.
+     */
+    public synchronized void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    /**
+     * Whether the responses of {@link #update(int, int, String)} carry {@link UpdateStatistics}.
+     * @return True if statistics are collected for each update.
+     */
+    public boolean isCollectingStatistics() {
+        return collectingStatistics;
+    }
+
+    /**
+     * Start or stop attaching {@link UpdateStatistics} to the responses of successful calls to
+     * {@link #update(int, int, String)}. A failed update is undone, so its response has none.
+     * Collecting statistics costs an extra pass over the usages of each updated cell
+     * to measure the depth of its cone, so it is off by default.
+     * @param collectingStatistics True to collect statistics, false to stop.
+     */
+    public synchronized void setCollectingStatistics(boolean collectingStatistics) {
+        this.collectingStatistics = collectingStatistics;
+    }
+
+    /**
+     * The budget that bounds each recalculation of this sheet.
+     * @return The recalculation budget, {@link RecalculationBudget#UNLIMITED} by default.
+     */
+    public RecalculationBudget getRecalculationBudget() {
+        return budget;
+    }
+
+    /**
+     * Bound the time and number of cells of every subsequent recalculation.
+     * A recalculation that exhausts its budget, or whose token is cancelled, stops before
+     * evaluating its next cell. Depending on the {@link RecalculationBudget.Overrun} of the budget,
+     * the values evaluated so far are either restored, undoing an update, or kept with the
+     * remaining cells left dirty for the next recalculation (see {@link #getPendingCells()}).
+     * Only eager recalculation is bounded, a lazy sheet already evaluates no more than is read.
+     * @param budget The budget of each recalculation.
+     * @requires budget != null
+     */
+    public synchronized void setRecalculationBudget(RecalculationBudget budget) {
+        this.budget = Objects.requireNonNull(budget);
+    }
+
+    /**
+     * The number of cells waiting to be evaluated by the next recalculation,
+     * either staged or left dirty by an interrupted recalculation.
+     * @return The number of dirty cells.
+     */
+    public int getPendingCells() {
+        return dirty.size();
+    }
+
+    /**
+     * The profiler recording the evaluations of this sheet while profiling is enabled.
+     * @return The profiler of this sheet.
+     */
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * The feed of changes to the values of this sheet.
+     * Unlike a {@link CellListener}, a subscriber to the feed receives the previous and new
+     * value of each changed cell, once per recalculation, on a thread of the common pool.
+     * A lazy sheet reports the change of a stale cell once the cell is evaluated.
+     * @return The change feed of this sheet.
+     */
+    public ChangeFeed getChangeFeed() {
+        return feed;
+    }
+
+    /**
+     * Offer every value stored since the last call to the change feed,
+     * omitting cells whose rendered value is unchanged, e.g. due to a rollback.
+     */
+    private void report() {
+        if (unreported.isEmpty()) {
+            return;
+        }
+        List<CellChange> changes = new ArrayList<>(unreported.size());
+        for (Map.Entry<CellLocation, Expression> entry : unreported.entrySet()) {
+            Expression value = values.get(entry.getKey().getRow(), entry.getKey().getColumn());
+            if (differs(entry.getValue(), value)) {
+                changes.add(new CellChange(entry.getKey().getRow(), entry.getKey().getColumn(),
+                        render(entry.getValue()), render(value)));
+            }
+        }
+        unreported = new HashMap<>();
+        if (!changes.isEmpty()) {
+            feed.offer(changes);
+        }
+    }
+
+    private static String render(Expression value) {
+        return value == null ? "" : value.render();
+    }
+
+    @Override
+    public void addCellListener(CellListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeCellListener(CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notify the listeners of every cell that has changed since the last notification.
+     */
+    private void publish() {
+        if (changed.isEmpty()) {
+            published = List.of();
+            return;
+        }
+        List<CellLocation> notify = new ArrayList<>(changed);
+        published = notify;
+        changed.clear();
+        for (CellListener listener : listeners) {
+            for (CellLocation location : notify) {
+                listener.changed(location.getRow(), location.getColumn());
+            }
+        }
+    }
+
+    /**
+     * Register a region of the sheet that is always kept up to date, even when evaluating lazily.
+     * @param viewport A region of the sheet, typically the cells visible to a user.
+     */
+    public synchronized void addViewport(Region viewport) {
+        viewports.add(viewport);
+        evaluateViewports();
+        report();
+    }
+
+    /**
+     * Stop keeping a previously registered region up to date.
+     * @param viewport A region previously passed to {@link #addViewport(Region)}.
+     */
+    public synchronized void removeViewport(Region viewport) {
+        viewports.remove(viewport);
+    }
+
     /**
      * Insert an expression into a cell location, updating the sheet as required.
      * After calling this function, the spreadsheet should update such that
@@ -82,17 +541,650 @@ public class Sheet implements SheetView, SheetUpdate {
      * Any cell that directly, or indirectly,
      * utilizes the value of the given cell is updated such that calling
      * valueAt(CellLocation) will return an appropriate result for the new value at this cell.
-     * If a TypeError is thrown at any point during the update of this cell or any dependant cells,
+     * If this cell or any dependant cell evaluates to an {@link ErrorValue},
      * the sheet should return to the same state as before this method was called.
      * @param location A cell location to insert the expression into the sheet.
      * @param cell cell An expression to insert at the given location.
+     * If the sheet is lazy, only the inserted cell is evaluated and its usages are marked stale,
+     * so an error in one of its usages is not detected until that usage is read.
+     * Unless the {@link CalculationMode} of the sheet is automatic, the cell is only marked dirty
+     * and evaluated by a later recalculation, so the update never fails.
+     * If the recalculation exhausts the {@link RecalculationBudget} of the sheet, the update is
+     * either undone without an error, or applied with its remaining usages left dirty,
+     * see {@link #update(int, int, String)} to learn which.
      * @throws TypeError If the evaluation of the inserted cell or any of its usages results
-     * in a TypeError being thrown.
+     * in an error.
      */
     public void update(CellLocation location, Expression cell) throws TypeError {
-        updatedCells.put(location, cell);
-        String coordinates = location.toString();
-        state.put(coordinates, cell);
+        ErrorValue error = place(location, cell);
+        if (error != null) {
+            throw error.toTypeError();
+        }
+    }
+
+    /**
+     * Insert and evaluate a cell as per {@link #update(CellLocation, Expression)},
+     * returning rather than throwing the error that caused the update to be rolled back.
+     * @return The error that caused the update to be rolled back, or null if it succeeded.
+     */
+    private ErrorValue place(CellLocation location, Expression cell) {
+        UpdateEvent event = new UpdateEvent();
+        event.begin();
+        published = List.of();
+        recalculated = 0;
+        interruption = null;
+        ErrorValue error = apply(location, cell);
+        report();
+        if (event.shouldCommit()) {
+            event.row = location.getRow();
+            event.column = location.getColumn();
+            event.formulaLength = cell.render().length();
+            event.dependencies = cell.dependencies().size();
+            event.affectedCells = published.size();
+            event.failed = error != null;
+            event.commit();
+        }
+        return error;
+    }
+
+    private ErrorValue apply(CellLocation location, Expression cell) {
+        metrics.updated();
+        if (mode != CalculationMode.AUTOMATIC) {
+            insert(location, cell);
+            if (mode == CalculationMode.DEFERRED) {
+                defer();
+            }
+            return null;
+        }
+        Expression previous = formulaAt(location);
+        Set<CellLocation> pending = new HashSet<>(dirty);
+        insert(location, cell);
+        if (lazy) {
+            invalidate();
+            ErrorValue error = resolve(location, true) instanceof ErrorValue failure ? failure : null;
+            if (error != null) {
+                metrics.typeErrored();
+                insert(location, previous);
+                invalidate();
+            }
+            publish();
+            if (error == null) {
+                evaluateViewports();
+                completeLater();
+            }
+            return error;
+        }
+        ErrorValue error = evaluate(true);
+        if (error != null || rolledBack()) {
+            if (error != null) {
+                metrics.typeErrored();
+            }
+            insert(location, previous);
+            dirty = pending;
+            changed.clear();
+            return error;
+        }
+        publish();
+        completeLater();
+        return null;
+    }
+
+    /**
+     * Count an edit of a deferred sheet, recalculating if enough edits have accumulated,
+     * and otherwise making sure a recalculation is scheduled for the end of the quiet period.
+     */
+    private void defer() {
+        if (++edits >= deferredEdits) {
+            recalculate();
+            return;
+        }
+        lastEdit = System.nanoTime();
+        if (deferral == null && quietNanos > 0) {
+            deferral = BACKGROUND.schedule(this::quietPeriodElapsed, quietNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Recalculate a deferred sheet if no edit has been made for its quiet period,
+     * otherwise wait for the rest of the quiet period since the last edit.
+     * Rescheduling once per quiet period, rather than once per edit, keeps edits cheap.
+     */
+    private void quietPeriodElapsed() {
+        synchronized (this) {
+            if (mode != CalculationMode.DEFERRED || edits == 0) {
+                return;
+            }
+            long wait = lastEdit + quietNanos - System.nanoTime();
+            if (wait > 0) {
+                deferral = BACKGROUND.schedule(this::quietPeriodElapsed, wait, TimeUnit.NANOSECONDS);
+                return;
+            }
+            deferral = null;
+            recalculate();
+        }
+    }
+
+    private void cancelDeferral() {
+        edits = 0;
+        if (deferral != null) {
+            deferral.cancel(false);
+            deferral = null;
+        }
+    }
+
+    /**
+     * Whether the last recalculation was interrupted and its values restored.
+     */
+    private boolean rolledBack() {
+        return interruption != null && budget.getOverrun() == RecalculationBudget.Overrun.ROLLBACK;
+    }
+
+    /**
+     * Insert an expression into a cell location without recalculating the sheet.
+     * The cell is marked as dirty and will be evaluated, along with all of its usages,
+     * by the next call to {@link #recalculate()} or {@link #update(CellLocation, Expression)}.
+     * This allows many cells to be inserted with a single recalculation at the end.
+     * @param location A cell location to insert the expression into the sheet.
+     * @param cell An expression to insert at the given location.
+     */
+    void insert(CellLocation location, Expression cell) {
+        Expression previous = sparse && cell == defaultExpression
+                ? updatedCells.remove(location)
+                : updatedCells.put(location, cell);
+        // Compound expressions build their dependencies on each call, so only ask once.
+        Set<String> dependencies = cell.dependencies();
+        Set<String> previousDependencies = previous == null ? Set.of() : previous.dependencies();
+        metrics.dependenciesChanged(dependencies.size() - previousDependencies.size());
+        if (previous != null) {
+            for (String dependency : previousDependencies) {
+                CellLocation used = cellAt(dependency);
+                if (used == null) {
+                    continue;
+                }
+                Set<CellLocation> users = usages.get(used);
+                users.remove(location);
+                if (users.isEmpty()) {
+                    usages.remove(used);
+                }
+            }
+        }
+        for (String dependency : dependencies) {
+            CellLocation used = cellAt(dependency);
+            if (used != null) {
+                usages.computeIfAbsent(used, k -> new HashSet<>()).add(location);
+            }
+        }
+        dirty.add(location);
+    }
+
+    /**
+     * Evaluate every cell inserted since the last recalculation, along with all the cells
+     * that directly, or indirectly, use those cells.
+     * Unlike {@link #update(CellLocation, Expression)}, an error never rolls back a recalculation.
+     * A cell that cannot be evaluated holds an {@link ErrorValue} as its value,
+     * which is {@link ErrorValue#CIRCULAR} if it is part of a circular reference.
+     * A recalculation that exhausts the {@link RecalculationBudget} of the sheet leaves cells dirty,
+     * so calling this method again continues it.
+     * If the sheet is lazy, the cells are instead marked stale and only the viewports are evaluated.
+     */
+    public void recalculate() {
+        cancelDeferral();
+        if (lazy) {
+            invalidate();
+            publish();
+            evaluateViewports();
+        } else {
+            evaluate(false);
+            publish();
+        }
+        report();
+        completeLater();
+    }
+
+    /**
+     * Evaluate all dirty cells and their usages in dependency order.
+     * If strict, the first cell to evaluate to an error, or a circular reference, restores
+     * the values of every evaluated cell and the error is returned.
+     * Otherwise, failing cells hold their error as their value.
+     * @return The error that stopped a strict evaluation, or null.
+     */
+    private ErrorValue evaluate(boolean strict) {
+        long start = System.nanoTime();
+        RecalculationEvent event = new RecalculationEvent();
+        event.begin();
+        interruption = null;
+        Set<CellLocation> seeds = dirty;
+        Set<CellLocation> affected = new HashSet<>();
+        List<CellLocation> order = recalculationOrder(seeds, affected, true);
+        dirty = new HashSet<>();
+        Map<CellLocation, Expression> replaced = new HashMap<>();
+
+        try {
+            return evaluate(strict, start, seeds, order, affected, replaced);
+        } finally {
+            metrics.recalculated(replaced.size(), System.nanoTime() - start);
+            recalculated += replaced.size();
+            if (event.shouldCommit()) {
+                event.kind = "recalculate";
+                event.seedCells = seeds.size();
+                event.evaluatedCells = replaced.size();
+                event.strict = strict;
+                event.commit();
+            }
+        }
+    }
+
+    private ErrorValue evaluate(boolean strict, long start, Set<CellLocation> seeds, List<CellLocation> order,
+                                Set<CellLocation> affected, Map<CellLocation, Expression> replaced) {
+        if (strict && order.size() < affected.size()) {
+            return ErrorValue.CIRCULAR;
+        }
+        boolean bounded = !budget.isUnlimited();
+        for (int i = 0; i < order.size(); i++) {
+            if (bounded && (interruption = budget.exhausted(start, i)) != null) {
+                interrupt(seeds, order.subList(i, order.size()), affected, replaced);
+                return null;
+            }
+            CellLocation location = order.get(i);
+            Expression value = evaluate(location, formulaAt(location));
+            if (strict && value instanceof ErrorValue error) {
+                restore(replaced);
+                return error;
+            }
+            if (differs(store(location, value, replaced), value)) {
+                changed.add(location);
+            }
+        }
+        if (order.size() < affected.size()) {
+            for (CellLocation location : affected) {
+                if (!replaced.containsKey(location)
+                        && differs(store(location, ErrorValue.CIRCULAR, replaced), ErrorValue.CIRCULAR)) {
+                    changed.add(location);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stop a recalculation that has exhausted its budget as per the overrun of the budget,
+     * either restoring the replaced values and leaving the seeds dirty,
+     * or leaving the cells not yet evaluated, including any circular references, dirty.
+     */
+    private void interrupt(Set<CellLocation> seeds, List<CellLocation> remaining,
+                           Set<CellLocation> affected, Map<CellLocation, Expression> replaced) {
+        if (budget.getOverrun() == RecalculationBudget.Overrun.ROLLBACK) {
+            restore(replaced);
+            changed.removeAll(replaced.keySet());
+            dirty.addAll(seeds);
+            return;
+        }
+        dirty.addAll(remaining);
+        for (CellLocation location : affected) {
+            if (!replaced.containsKey(location)) {
+                dirty.add(location);
+            }
+        }
+    }
+
+    /**
+     * Restore the values replaced by an evaluation.
+     */
+    private void restore(Map<CellLocation, Expression> replaced) {
+        for (Map.Entry<CellLocation, Expression> entry : replaced.entrySet()) {
+            store(entry.getKey(), entry.getValue(), null);
+        }
+    }
+
+    /**
+     * Whether replacing the first value with the second changes what is rendered in the cell.
+     */
+    private static boolean differs(Expression previous, Expression value) {
+        if (previous == value) {
+            return false;
+        }
+        if (previous instanceof Constant before && value instanceof Constant after) {
+            return before.getValue() != after.getValue();
+        }
+        return previous == null || !previous.render().equals(value.render());
+    }
+
+    /**
+     * Mark every dirty cell, and every cell that transitively uses a dirty cell, as stale.
+     * The usages of a stale cell are always stale, so the search stops at stale cells.
+     */
+    private void invalidate() {
+        Deque<CellLocation> pending = new ArrayDeque<>(dirty);
+        dirty = new HashSet<>();
+        while (!pending.isEmpty()) {
+            CellLocation location = pending.poll();
+            if (stale.add(location)) {
+                changed.add(location);
+                pending.addAll(usersOf(location));
+            }
+        }
+    }
+
+    private void evaluateViewports() {
+        if (stale.isEmpty()) {
+            return;
+        }
+        for (Region viewport : viewports) {
+            ValueBatchEvent event = new ValueBatchEvent();
+            event.begin();
+            int lastRow = Math.min(viewport.row() + viewport.rows(), rows);
+            int lastColumn = Math.min(viewport.column() + viewport.columns(), columns);
+            for (int row = viewport.row(); row < lastRow; row++) {
+                for (int column = viewport.column(); column < lastColumn; column++) {
+                    CellLocation location = new CellLocation(row, column);
+                    if (stale.contains(location)) {
+                        resolveQuietly(location);
+                    }
+                }
+            }
+            event.report("viewport", viewport.row(), viewport.column(), viewport.rows(), viewport.columns());
+        }
+    }
+
+    private Expression resolveQuietly(CellLocation location) {
+        return resolve(location, false);
+    }
+
+    /**
+     * Evaluate a stale cell after first evaluating any of its stale dependencies.
+     * If strict and the target cell evaluates to an error, the values of every cell evaluated
+     * on the way are restored and the cells left stale, along with the target.
+     * Otherwise, failing cells hold their error as their value.
+     * @return The value of the target, or the error it evaluated to.
+     */
+    private Expression resolve(CellLocation target, boolean strict) {
+        long start = System.nanoTime();
+        RecalculationEvent event = new RecalculationEvent();
+        event.begin();
+        int evaluated = 0;
+        Deque<CellLocation> stack = new ArrayDeque<>();
+        Set<CellLocation> visiting = new HashSet<>();
+        Map<CellLocation, Expression> replaced = strict ? new HashMap<>() : null;
+        stack.push(target);
+
+        try {
+            while (!stack.isEmpty()) {
+                CellLocation location = stack.peek();
+                if (!stale.contains(location)) {
+                    stack.pop();
+                    continue;
+                }
+                if (visiting.add(location)) {
+                    boolean waiting = false;
+                    for (CellLocation dependency : dependenciesOf(location)) {
+                        if (stale.contains(dependency) && !visiting.contains(dependency)) {
+                            stack.push(dependency);
+                            waiting = true;
+                        }
+                    }
+                    if (waiting) {
+                        continue;
+                    }
+                }
+                stack.pop();
+
+                // Any dependency still stale at this point is part of a circular reference.
+                boolean circular = false;
+                for (CellLocation dependency : dependenciesOf(location)) {
+                    circular |= stale.contains(dependency);
+                }
+                Expression value = circular
+                        ? ErrorValue.CIRCULAR
+                        : evaluate(location, formulaAt(location));
+                if (strict && value instanceof ErrorValue && location.equals(target)) {
+                    restore(replaced);
+                    stale.addAll(replaced.keySet());
+                    return value;
+                }
+                store(location, value, replaced);
+                stale.remove(location);
+                evaluated++;
+            }
+        } finally {
+            metrics.recalculated(evaluated, System.nanoTime() - start);
+            recalculated += evaluated;
+            if (event.shouldCommit()) {
+                event.kind = "resolve";
+                event.seedCells = 1;
+                event.evaluatedCells = evaluated;
+                event.strict = strict;
+                event.commit();
+            }
+        }
+        return values.get(target.getRow(), target.getColumn());
+    }
+
+    /**
+     * Evaluate the formula of a cell, recording the evaluation if profiling.
+     * The core expressions report errors as values, a TypeError is only expected from
+     * other implementations of Expression and is converted to {@link ErrorValue#VALUE}.
+     */
+    private Expression evaluate(CellLocation location, Expression formula) {
+        long start = profiling ? System.nanoTime() : 0;
+        try {
+            return formula.value(state);
+        } catch (TypeError e) {
+            return ErrorValue.VALUE;
+        } finally {
+            if (profiling) {
+                profiler.record(location, formula, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * The cells within the sheet referenced by the formula of a cell.
+     */
+    List<CellLocation> dependenciesOf(CellLocation location) {
+        List<CellLocation> dependencies = new ArrayList<>();
+        for (String identifier : formulaAt(location).dependencies()) {
+            Optional<CellLocation> reference = CellLocation.maybeReference(identifier);
+            if (reference.isPresent()
+                    && reference.get().getRow() >= 0
+                    && reference.get().getRow() < rows
+                    && reference.get().getColumn() < columns) {
+                dependencies.add(reference.get());
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Store the value of a cell, remembering the value it replaced in replaced if not null.
+     * @return The value that was replaced.
+     */
+    private Expression store(CellLocation location, Expression value,
+                             Map<CellLocation, Expression> replaced) {
+        Expression previous = values.put(location.getRow(), location.getColumn(), value);
+        if (replaced != null) {
+            replaced.putIfAbsent(location, previous);
+        }
+        if (feed.isActive()) {
+            unreported.putIfAbsent(location, previous);
+        }
+        return previous;
+    }
+
+    /**
+     * The state passed to formulas, resolving the identifier of a cell to the value held in the
+     * value columns and any other identifier to a built-in, without copying either.
+     * Only identifiers in the form produced by {@link CellLocation#toString()} refer to cells.
+     */
+    private class CellState extends AbstractMap<String, Expression> {
+        @Override
+        public boolean containsKey(Object key) {
+            return cellOf(key) >= 0 || builtins.containsKey(key);
+        }
+
+        @Override
+        public Expression get(Object key) {
+            long cell = cellOf(key);
+            if (cell < 0) {
+                return builtins.get(key);
+            }
+            return values.get((int) (cell >>> Integer.SIZE), (int) cell);
+        }
+
+        @Override
+        public Set<Entry<String, Expression>> entrySet() {
+            Map<String, Expression> copy = new HashMap<>(builtins);
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    copy.put(new CellLocation(row, column).toString(), values.get(row, column));
+                }
+            }
+            return Collections.unmodifiableMap(copy).entrySet();
+        }
+
+        /**
+         * The row and column of the cell an identifier refers to, packed into a long,
+         * or -1 if the identifier does not refer to a cell within the sheet.
+         */
+        private long cellOf(Object key) {
+            if (!(key instanceof String identifier) || identifier.length() < 2) {
+                return -1;
+            }
+            int column = identifier.charAt(0) - 'A';
+            if (column < 0 || column >= columns || column > 'Z' - 'A'
+                    || identifier.charAt(1) == '0' && identifier.length() > 2) {
+                return -1;
+            }
+            long row = 0;
+            for (int i = 1; i < identifier.length(); i++) {
+                char digit = identifier.charAt(i);
+                if (digit < '0' || digit > '9') {
+                    return -1;
+                }
+                row = row * 10 + digit - '0';
+                if (row >= rows) {
+                    return -1;
+                }
+            }
+            return (row << Integer.SIZE) | column;
+        }
+    }
+
+    /**
+     * Order the given cells and all their transitive usages such that every cell
+     * comes after the cells it depends upon. Cells that are part of a circular
+     * reference are collected in affected but omitted from the returned order.
+     * If prioritized, the cells returned by {@link #priorityCells(Set)} are ordered
+     * before every other cell, which is possible as they include all their dependencies.
+     */
+    private List<CellLocation> recalculationOrder(Collection<CellLocation> seeds,
+                                                  Set<CellLocation> affected, boolean prioritized) {
+        // Every affected cell is visited once, so its users are counted once.
+        Deque<CellLocation> pending = new ArrayDeque<>(seeds);
+        affected.addAll(seeds);
+        Map<CellLocation, Integer> inDegree = new HashMap<>();
+        while (!pending.isEmpty()) {
+            for (CellLocation user : usersOf(pending.poll())) {
+                inDegree.merge(user, 1, Integer::sum);
+                if (affected.add(user)) {
+                    pending.add(user);
+                }
+            }
+        }
+
+        // Only a seed can have no affected dependencies, every other cell is the user of one.
+        List<CellLocation> order = new ArrayList<>(affected.size());
+        Set<CellLocation> priority = prioritized ? priorityCells(affected) : Set.of();
+        if (!priority.isEmpty()) {
+            return prioritizedOrder(seeds, inDegree, priority, order);
+        }
+        for (CellLocation location : seeds) {
+            if (!inDegree.containsKey(location)) {
+                order.add(location);
+            }
+        }
+        for (int i = 0; i < order.size(); i++) {
+            for (CellLocation user : usersOf(order.get(i))) {
+                if (inDegree.merge(user, -1, Integer::sum) == 0) {
+                    order.add(user);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Order the affected cells as per {@link #recalculationOrder(Collection, Set, boolean)},
+     * always taking a ready priority cell before any other ready cell.
+     */
+    private List<CellLocation> prioritizedOrder(Collection<CellLocation> seeds, Map<CellLocation, Integer> inDegree,
+                                                Set<CellLocation> priority, List<CellLocation> order) {
+        Deque<CellLocation> urgent = new ArrayDeque<>();
+        Deque<CellLocation> ready = new ArrayDeque<>();
+        for (CellLocation location : seeds) {
+            if (!inDegree.containsKey(location)) {
+                (priority.contains(location) ? urgent : ready).add(location);
+            }
+        }
+        while (!urgent.isEmpty() || !ready.isEmpty()) {
+            CellLocation location = urgent.isEmpty() ? ready.poll() : urgent.poll();
+            order.add(location);
+            for (CellLocation user : usersOf(location)) {
+                if (inDegree.merge(user, -1, Integer::sum) == 0) {
+                    (priority.contains(user) ? urgent : ready).add(user);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * The affected cells that are within a viewport or were read while cells were dirty,
+     * along with every affected cell they depend upon. Forgets the cells that were read.
+     */
+    private Set<CellLocation> priorityCells(Set<CellLocation> affected) {
+        if (viewports.isEmpty() && requestedCount == 0) {
+            return Set.of();
+        }
+        Deque<CellLocation> pending = new ArrayDeque<>();
+        Set<CellLocation> priority = new HashSet<>();
+        if (!viewports.isEmpty()) {
+            for (CellLocation location : affected) {
+                for (Region viewport : viewports) {
+                    if (viewport.contains(location) && priority.add(location)) {
+                        pending.add(location);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < requestedCount; i++) {
+            CellLocation location = requested[i];
+            if (affected.contains(location) && priority.add(location)) {
+                pending.add(location);
+            }
+        }
+        Arrays.fill(requested, null);
+        requestedCount = 0;
+        requestedNext = 0;
+        while (!pending.isEmpty()) {
+            for (CellLocation dependency : dependenciesOf(pending.poll())) {
+                if (affected.contains(dependency) && priority.add(dependency)) {
+                    pending.add(dependency);
+                }
+            }
+        }
+        return priority;
+    }
+
+    private Set<CellLocation> usersOf(CellLocation location) {
+        return usages.getOrDefault(location, Collections.emptySet());
+    }
+
+    /**
+     * The cell an identifier refers to, or null if it does not refer to a cell within the sheet.
+     */
+    private CellLocation cellAt(String identifier) {
+        long cell = state.cellOf(identifier);
+        return cell < 0 ? null : new CellLocation((int) (cell >>> Integer.SIZE), (int) cell);
     }
 
     /**
@@ -102,6 +1194,10 @@ public class Sheet implements SheetView, SheetUpdate {
      * Once parsed, the method should function the same as update(CellLocation, Expression).
      * If a TypeError occurs, then the update response must fail with "Type error: [e]" where e
      * is the result of calling Throwable.toString() on the thrown exception.
+     * If the recalculation exhausts the {@link RecalculationBudget} of the sheet and is rolled back,
+     * the update response fails with the reason the recalculation was interrupted.
+     * If the recalculation is interrupted and leaves cells dirty, the response is successful but
+     * incomplete, see {@link UpdateResponse#getPendingCells()}.
      * Otherwise, the spreadsheet should update as per update(CellLocation, Expression)
      * and return a successful UpdateResponse.
      * @param row The row index to update.
@@ -116,33 +1212,146 @@ public class Sheet implements SheetView, SheetUpdate {
         }
 
         CellLocation location = new CellLocation(row, column);
-        Expression oldCell = updatedCells.get(location);
+        long start = System.nanoTime();
+        long parsed = start;
+        String failure = null;
+        published = List.of();
+        recalculated = 0;
+        interruption = null;
 
         try {
-            Expression content = this.parser.parse(input);
+            Expression content = parse(input);
+            parsed = System.nanoTime();
 
-            update(location, content);
-            return UpdateResponse.success();
+            if (place(location, content) != null) {
+                failure = "Type error: [e]";
+            } else if (rolledBack()) {
+                failure = interruption;
+            }
 
+        } catch (ParseException e) {
+            parsed = System.nanoTime();
+            failure = "Unable to parse: " + input;
+        }
+
+        if (failure != null) {
+            return UpdateResponse.fail(failure);
+        }
+        UpdateStatistics statistics = collectingStatistics
+                ? statistics(location, parsed - start, System.nanoTime() - parsed)
+                : null;
+        if (interruption != null && !dirty.isEmpty()) {
+            return UpdateResponse.incomplete(dirty.size(), statistics);
+        }
+        return statistics == null ? UpdateResponse.success() : UpdateResponse.success(statistics);
+    }
+
+    /**
+     * The statistics of the last update of a cell.
+     */
+    private UpdateStatistics statistics(CellLocation location, long parseNanos, long evaluationNanos) {
+        int[] changedRows = new int[published.size()];
+        int[] changedColumns = new int[published.size()];
+        for (int i = 0; i < published.size(); i++) {
+            changedRows[i] = published.get(i).getRow();
+            changedColumns[i] = published.get(i).getColumn();
+        }
+        return new UpdateStatistics(parseNanos, evaluationNanos, recalculated,
+                coneDepth(location), changedRows, changedColumns);
+    }
+
+    /**
+     * The length of the longest chain of cells that use the given cell.
+     * Cells that are part of a circular reference are not counted.
+     */
+    private int coneDepth(CellLocation location) {
+        List<CellLocation> order = recalculationOrder(List.of(location), new HashSet<>(), false);
+        Map<CellLocation, Integer> depths = new HashMap<>();
+        int deepest = 0;
+        for (CellLocation cell : order) {
+            int depth = depths.getOrDefault(cell, 0);
+            deepest = Math.max(deepest, depth);
+            for (CellLocation user : usersOf(cell)) {
+                depths.merge(user, depth + 1, Math::max);
+            }
+        }
+        return deepest;
+    }
+
+    /**
+     * Parse an input with the sheet's parser, recording the parse in the metrics.
+     */
+    private Expression parse(String input) throws ParseException {
+        long start = System.nanoTime();
+        try {
+            return this.parser.parse(input);
+        } catch (ParseException e) {
+            metrics.parseFailed();
+            throw e;
+        } finally {
+            metrics.parsed(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Attempt to replace the formula of the cell at row and column without recalculating.
+     * The input string will be parsed using the sheet's Parser. If the string cannot be parsed,
+     * then the update response must fail with "Unable to parse: [input]".
+     * Otherwise, the cell is inserted as per insert(CellLocation, Expression)
+     * and evaluated by the next call to commit().
+     * @param row The row index to update.
+     * @param column The column index to update.
+     * @param input The value as a string to replace within the sheet.
+     * @return Information about the status of staging the update.
+     */
+    @Override
+    public UpdateResponse stage(int row, int column, String input) {
+        if (row < 0 || row >= getRows() || column < 0 || column >= getColumns()) {
+            throw new IllegalArgumentException(
+                    "Row and column indices must be within the valid range");
+        }
+
+        try {
+            insert(new CellLocation(row, column), parse(input));
+            return UpdateResponse.success();
         } catch (ParseException e) {
             return UpdateResponse.fail("Unable to parse: " + input);
-        } catch (TypeError e) {
-            updatedCells.put(location, oldCell);
-            return UpdateResponse.fail("Type error: [e]");
         }
     }
 
+    /**
+     * Recalculate every cell staged since the last commit, as per recalculate().
+     */
+    @Override
+    public void commit() {
+        recalculate();
+    }
+
     /**
      * The value expression currently stored at the location in the spreadsheet.
      * The value expression is the result of calling
      * Expression.value(Map) on the corresponding formula.
      * The Expression.value(Map) must not be called in this method,
      * it should be called when a formula is updated in update(CellLocation, Expression).
+     * If the sheet is lazy and the cell is stale, the cell is evaluated here instead.
      * @param location A cell location within the spreadsheet.
      * @return The value expression at the given cell location.
      */
     public Expression valueAt(CellLocation location) {
-        return updatedCells.get(location);
+        if (lazy && stale.contains(location)) {
+            metrics.read(false);
+            Expression value = resolveQuietly(location);
+            report();
+            return value;
+        }
+        metrics.read(true);
+        if (!dirty.isEmpty()) {
+            // The value may be out of date, so evaluate this cell first when recalculating.
+            requested[requestedNext] = location;
+            requestedNext = (requestedNext + 1) % REQUESTED;
+            requestedCount = Math.max(requestedCount, requestedNext == 0 ? REQUESTED : requestedNext);
+        }
+        return values.get(location.getRow(), location.getColumn());
     }
 
     /**
@@ -157,15 +1366,83 @@ public class Sheet implements SheetView, SheetUpdate {
     public ViewElement valueAt(int row, int column) {
         CellLocation cell = new CellLocation(row, column);
         Expression expression = valueAt(cell);
-        String renderedValue = expression.render();
-        try {
-            return new ViewElement(
-                    expression.value(state).render(), "white", "black");
-        }   catch (TypeError e) {
-            return new ViewElement(
-                    expression.render(), "white", "black");
+        return new ViewElement(expression.render(), "white", "black");
+    }
+
+    /**
+     * Copy the numeric values of a rectangular region into an array as per
+     * {@link SheetView#readNumbers(int, int, int, int, long[], long[])},
+     * scanning the value columns directly rather than materializing or rendering each value.
+     * Stale cells of a lazy sheet are evaluated first.
+     */
+    @Override
+    public int readNumbers(int row, int column, int rows, int columns, long[] numbers, long[] valid) {
+        checkRegion(row, column, rows, columns, numbers.length);
+        int words = (rows * columns + Long.SIZE - 1) / Long.SIZE;
+        if (valid.length < words) {
+            throw new IllegalArgumentException("Requires: valid.length * 64 >= rows * columns");
         }
+        Arrays.fill(valid, 0, words, 0);
+        resolveRegion(row, column, rows, columns);
+        int count = 0;
+        for (int j = 0; j < columns; j++) {
+            for (int i = 0; i < rows; i++) {
+                int k = i * columns + j;
+                if (values.tag(row + i, column + j) == ValueColumns.NUMBER) {
+                    numbers[k] = values.number(row + i, column + j);
+                    valid[k >>> 6] |= 1L << k;
+                    count++;
+                } else {
+                    numbers[k] = 0;
+                }
+            }
+        }
+        return count;
+    }
 
+    /**
+     * Copy the rendered values of a rectangular region into an array as per
+     * {@link SheetView#readText(int, int, int, int, String[])}.
+     * Only the rendered text of a number is allocated, empty cells and errors
+     * render to shared strings.
+     */
+    @Override
+    public void readText(int row, int column, int rows, int columns, String[] text) {
+        checkRegion(row, column, rows, columns, text.length);
+        resolveRegion(row, column, rows, columns);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                text[i * columns + j] = values.get(row + i, column + j).render();
+            }
+        }
+    }
+
+    /**
+     * Evaluate the stale cells of a region of a lazy sheet.
+     */
+    private void resolveRegion(int row, int column, int rows, int columns) {
+        if (!lazy || stale.isEmpty()) {
+            return;
+        }
+        for (int i = row; i < row + rows; i++) {
+            for (int j = column; j < column + columns; j++) {
+                CellLocation location = new CellLocation(i, j);
+                if (stale.contains(location)) {
+                    resolveQuietly(location);
+                }
+            }
+        }
+        report();
+    }
+
+    private void checkRegion(int row, int column, int rows, int columns, int length) {
+        if (row < 0 || column < 0 || rows < 0 || columns < 0
+                || row + rows > this.rows || column + columns > this.columns) {
+            throw new IllegalArgumentException("Requires: the region is within the sheet");
+        }
+        if (length < rows * columns) {
+            throw new IllegalArgumentException("Requires: the array holds rows * columns cells");
+        }
     }
 
     /**
@@ -174,7 +1451,7 @@ public class Sheet implements SheetView, SheetUpdate {
      * @return The formula expression at the given cell location.
      */
     public Expression formulaAt(CellLocation location) {
-        return updatedCells.get(location);
+        return updatedCells.getOrDefault(location, defaultExpression);
     }
 
     /**
@@ -214,20 +1491,10 @@ public class Sheet implements SheetView, SheetUpdate {
         while (!queue.isEmpty()) {
             CellLocation current = queue.poll();
 
-            for (int i = 0; i < getRows(); i++) {
-                for (int j = 0; j < getColumns(); j++) {
-                    CellLocation cell = new CellLocation(i, j);
-                    Expression formula = formulaAt(cell);
-                    Set<String> dependencies = formula.dependencies();
-
-                    if (dependencies.contains(current.toString())) {
-                        usedByCells.add(cell);
-
-                        // If the cell is not already in the queue, add it
-                        if (!queue.contains(cell)) {
-                            queue.add(cell);
-                        }
-                    }
+            for (CellLocation cell : usersOf(current)) {
+                // Only visit each cell once, even if it is used by many cells
+                if (usedByCells.add(cell)) {
+                    queue.add(cell);
                 }
             }
         }
@@ -3,6 +3,7 @@ package sheep.sheets;
 import sheep.expression.Expression;
 import sheep.parsing.Parser;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,6 +21,11 @@ public class SheetBuilder {
     private Parser parser;
     private Expression defaultExpression;
     private Map<String, Expression> builtins = new HashMap<>();
+    private CalculationMode mode = CalculationMode.AUTOMATIC;
+    private int deferredEdits = Sheet.DEFAULT_DEFERRED_EDITS;
+    private Duration quietPeriod = Sheet.DEFAULT_QUIET_PERIOD;
+    private ValueStorage storage = ValueStorage.HEAP;
+    private boolean registerMetrics;
 
     /**
      * Construct an instance of SheetBuilder
@@ -48,6 +54,61 @@ public class SheetBuilder {
         return this;
     }
 
+    /**
+     * Select when sheets constructed by this builder recalculate after an update.
+     * @param mode The calculation mode of the constructed sheets.
+     * @return The current instance of the SheetBuilder.
+     * @see Sheet#setCalculationMode(CalculationMode)
+     */
+    public SheetBuilder calculationMode(CalculationMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Requires: mode != null");
+        }
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * Select when sheets constructed by this builder recalculate in
+     * {@link CalculationMode#DEFERRED} mode.
+     * @param edits The number of edits that trigger a recalculation.
+     * @param quietPeriod The time without edits that triggers a recalculation, or null for none.
+     * @return The current instance of the SheetBuilder.
+     * @see Sheet#setDeferral(int, Duration)
+     */
+    public SheetBuilder deferral(int edits, Duration quietPeriod) {
+        if (edits <= 0) {
+            throw new IllegalArgumentException("Requires: edits > 0");
+        }
+        this.deferredEdits = edits;
+        this.quietPeriod = quietPeriod;
+        return this;
+    }
+
+    /**
+     * Select where sheets constructed by this builder keep the evaluated values of their cells.
+     * @param storage The value storage of the constructed sheets.
+     * @return The current instance of the SheetBuilder.
+     */
+    public SheetBuilder valueStorage(ValueStorage storage) {
+        if (storage == null) {
+            throw new IllegalArgumentException("Requires: storage != null");
+        }
+        this.storage = storage;
+        return this;
+    }
+
+    /**
+     * Select whether sheets constructed by this builder register their metrics with JMX,
+     * see {@link SheetMetrics#register()}. The metrics are unregistered by {@link Sheet#dispose()}.
+     * @param register Whether to register the metrics of the constructed sheets.
+     * @return The current instance of the SheetBuilder.
+     */
+    public SheetBuilder registerMetrics(boolean register) {
+        this.registerMetrics = register;
+        return this;
+    }
+
     /**
      * Construct a new empty sheet with the given number of rows and columns.
      * If the built-ins are updated (i.e. includeBuiltIn(String, Expression) is called)
@@ -58,7 +119,13 @@ public class SheetBuilder {
      */
     public Sheet empty(int rows, int columns) {
         Map<String, Expression> builtinsCopy = new HashMap<>(builtins);
-        return new Sheet(this.parser, builtinsCopy, this.defaultExpression, rows, columns);
+        Sheet sheet = new Sheet(this.parser, builtinsCopy, this.defaultExpression, rows, columns, storage);
+        sheet.setDeferral(deferredEdits, quietPeriod);
+        sheet.setCalculationMode(mode);
+        if (registerMetrics) {
+            sheet.getMetrics().register();
+        }
+        return sheet;
     }
 
 }
@@ -0,0 +1,224 @@
+package sheep.sheets;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the internals of a single {@link Sheet}, exposed over JMX.
+ * <p>
+ * Every sheet records its metrics into striped counters and histograms,
+ * so recording stays cheap when many threads read or update the sheet.
+ * The metrics are only visible to JMX clients once {@link #register()} is called.
+ * A cache hit is a read of a value that did not need to be evaluated;
+ * every read of an eager sheet is a hit.
+ */
+public class SheetMetrics implements SheetMetricsMBean {
+    private static final AtomicInteger SHEETS = new AtomicInteger();
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder parseErrors = new LongAdder();
+    private final LongAdder typeErrors = new LongAdder();
+    private final LongAdder dependencies = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Histogram recalculatedCells = new Histogram();
+    private final Histogram recalculationLatency = new Histogram();
+    private final Histogram parseLatency = new Histogram();
+    private volatile long since = System.nanoTime();
+    private ObjectName name;
+
+    void updated() {
+        updates.increment();
+    }
+
+    void parsed(long nanos) {
+        parseLatency.record(nanos);
+    }
+
+    void parseFailed() {
+        parseErrors.increment();
+    }
+
+    void typeErrored() {
+        typeErrors.increment();
+    }
+
+    void recalculated(int cells, long nanos) {
+        recalculatedCells.record(cells);
+        recalculationLatency.record(nanos);
+    }
+
+    void dependenciesChanged(int delta) {
+        dependencies.add(delta);
+    }
+
+    void read(boolean hit) {
+        (hit ? hits : misses).increment();
+    }
+
+    /**
+     * Register these metrics with the platform MBean server under a name unique to the sheet,
+     * of the form "sheep:type=Sheet,name=sheet-[n]". Registering twice has no effect.
+     * @return The name the metrics are registered under.
+     * @throws IllegalStateException If the metrics cannot be registered.
+     */
+    public synchronized ObjectName register() {
+        if (name != null) {
+            return name;
+        }
+        try {
+            ObjectName objectName = new ObjectName(
+                    "sheep:type=Sheet,name=sheet-" + SHEETS.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            name = objectName;
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Remove these metrics from the platform MBean server, if registered.
+     */
+    public synchronized void unregister() {
+        if (name == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(name);
+        } catch (JMException e) {
+            // Already removed by someone else.
+        }
+        name = null;
+    }
+
+    private double perSecond(LongAdder counter) {
+        double seconds = (System.nanoTime() - since) / 1e9;
+        return seconds <= 0 ? 0 : counter.sum() / seconds;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    @Override
+    public long getUpdateCount() {
+        return updates.sum();
+    }
+
+    @Override
+    public long getParseCount() {
+        return parseLatency.count();
+    }
+
+    @Override
+    public long getParseErrorCount() {
+        return parseErrors.sum();
+    }
+
+    @Override
+    public long getTypeErrorCount() {
+        return typeErrors.sum();
+    }
+
+    @Override
+    public double getParseErrorsPerSecond() {
+        return perSecond(parseErrors);
+    }
+
+    @Override
+    public double getTypeErrorsPerSecond() {
+        return perSecond(typeErrors);
+    }
+
+    @Override
+    public double getRecalculatedCellsMean() {
+        return recalculatedCells.mean();
+    }
+
+    @Override
+    public long getRecalculatedCellsP50() {
+        return recalculatedCells.percentile(0.5);
+    }
+
+    @Override
+    public long getRecalculatedCellsP99() {
+        return recalculatedCells.percentile(0.99);
+    }
+
+    @Override
+    public long getRecalculatedCellsMax() {
+        return recalculatedCells.max();
+    }
+
+    @Override
+    public long getRecalculationLatencyP50() {
+        return micros(recalculationLatency.percentile(0.5));
+    }
+
+    @Override
+    public long getRecalculationLatencyP99() {
+        return micros(recalculationLatency.percentile(0.99));
+    }
+
+    @Override
+    public long getRecalculationLatencyP999() {
+        return micros(recalculationLatency.percentile(0.999));
+    }
+
+    @Override
+    public long getRecalculationLatencyMax() {
+        return micros(recalculationLatency.max());
+    }
+
+    @Override
+    public long getParseLatencyP50() {
+        return micros(parseLatency.percentile(0.5));
+    }
+
+    @Override
+    public long getParseLatencyP99() {
+        return micros(parseLatency.percentile(0.99));
+    }
+
+    @Override
+    public long getDependencyCount() {
+        return dependencies.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 1 : (double) hit / total;
+    }
+
+    @Override
+    public void reset() {
+        updates.reset();
+        parseErrors.reset();
+        typeErrors.reset();
+        hits.reset();
+        misses.reset();
+        recalculatedCells.reset();
+        recalculationLatency.reset();
+        parseLatency.reset();
+        since = System.nanoTime();
+    }
+}
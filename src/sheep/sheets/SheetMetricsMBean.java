@@ -0,0 +1,52 @@
+package sheep.sheets;
+
+/**
+ * Management interface of the {@link SheetMetrics} of a sheet.
+ * Latencies are in microseconds.
+ */
+public interface SheetMetricsMBean {
+    long getUpdateCount();
+
+    long getParseCount();
+
+    long getParseErrorCount();
+
+    long getTypeErrorCount();
+
+    double getParseErrorsPerSecond();
+
+    double getTypeErrorsPerSecond();
+
+    double getRecalculatedCellsMean();
+
+    long getRecalculatedCellsP50();
+
+    long getRecalculatedCellsP99();
+
+    long getRecalculatedCellsMax();
+
+    long getRecalculationLatencyP50();
+
+    long getRecalculationLatencyP99();
+
+    long getRecalculationLatencyP999();
+
+    long getRecalculationLatencyMax();
+
+    long getParseLatencyP50();
+
+    long getParseLatencyP99();
+
+    long getDependencyCount();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    double getCacheHitRate();
+
+    /**
+     * Forget all recorded values, except the size of the dependency graph.
+     */
+    void reset();
+}
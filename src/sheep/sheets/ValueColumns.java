@@ -0,0 +1,206 @@
+package sheep.sheets;
+
+import sheep.expression.Expression;
+import sheep.expression.basic.Constant;
+import sheep.expression.basic.ErrorValue;
+import sheep.expression.basic.Nothing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The evaluated values of a sheet, stored column by column in primitive storage.
+ * <p>
+ * Each column is split into chunks of {@value #CHUNK} rows. A chunk holds one long per cell
+ * and a 2 bit tag per cell saying how to read that long: as a number, as the index of an
+ * {@link ErrorValue}, or not at all for an empty cell or a cell holding any other expression,
+ * which is kept in a side table. A chunk is only allocated once one of its cells differs from
+ * the fill value every cell starts with, so untouched regions of a sheet cost nothing.
+ * How chunks are stored is up to the subclass, see {@link ValueStorage}.
+ * <p>
+ * Expressions are only materialized when a value is read. Numbers between
+ * {@value #CACHED_MIN} and {@value #CACHED_MAX} are materialized as shared constants,
+ * so reading a small number does not allocate.
+ */
+abstract class ValueColumns {
+    /** The number of rows in a chunk, a power of two. */
+    static final int CHUNK = 1024;
+    private static final int SHIFT = Integer.numberOfTrailingZeros(CHUNK);
+
+    static final int EMPTY = 0;
+    static final int NUMBER = 1;
+    static final int ERROR = 2;
+    static final int OTHER = 3;
+
+    private static final int CACHED_MIN = -128;
+    private static final int CACHED_MAX = 1023;
+    private static final Constant[] CACHED = new Constant[CACHED_MAX - CACHED_MIN + 1];
+    private static final ErrorValue[] ERRORS = {
+        ErrorValue.VALUE, ErrorValue.DIVIDE_BY_ZERO, ErrorValue.CIRCULAR
+    };
+    private static final Nothing NOTHING = new Nothing();
+
+    static {
+        for (int i = 0; i < CACHED.length; i++) {
+            CACHED[i] = new Constant(CACHED_MIN + i);
+        }
+    }
+
+    /** The value every cell holds until it is first stored, and its tag and number. */
+    private final Expression fill;
+    protected final int fillTag;
+    protected final long fillNumber;
+    /** The values tagged {@link #OTHER}, keyed by {@link #key(int, int)}. */
+    private final Map<Long, Expression> others = new HashMap<>();
+
+    /**
+     * @param fill The value every cell holds until it is first stored.
+     */
+    protected ValueColumns(Expression fill) {
+        this.fill = fill;
+        this.fillTag = tagOf(fill);
+        this.fillNumber = numberOf(fill);
+    }
+
+    /**
+     * Construct the value columns of a sheet.
+     * @param storage Where to keep the values.
+     * @param rows The number of rows of the sheet.
+     * @param columns The number of columns of the sheet.
+     * @param fill The value every cell holds until it is first stored.
+     */
+    static ValueColumns create(ValueStorage storage, int rows, int columns, Expression fill) {
+        return storage == ValueStorage.OFF_HEAP
+                ? new OffHeapColumns(rows, columns, fill)
+                : new HeapColumns(rows, columns, fill);
+    }
+
+    /**
+     * The number of chunks needed to hold the given number of rows.
+     */
+    static int chunks(int rows) {
+        return (rows + CHUNK - 1) >>> SHIFT;
+    }
+
+    /**
+     * The tag of a cell, one of {@link #EMPTY}, {@link #NUMBER}, {@link #ERROR} or {@link #OTHER}.
+     */
+    abstract int tag(int row, int column);
+
+    /**
+     * The number held by a cell tagged {@link #NUMBER}, or the index of the error of a cell
+     * tagged {@link #ERROR}.
+     */
+    abstract long number(int row, int column);
+
+    /**
+     * Whether the chunk holding a cell has been allocated.
+     */
+    protected abstract boolean isAllocated(int row, int column);
+
+    /**
+     * Set the tag and number of a cell, first allocating its chunk filled with
+     * {@link #fillTag} and {@link #fillNumber} if needed.
+     */
+    protected abstract void set(int row, int column, int tag, long number);
+
+    /**
+     * A word holding the fill tag of each of 32 cells.
+     */
+    protected long fillTags() {
+        return fillTag * 0x5555555555555555L;
+    }
+
+    /**
+     * The value of a cell as an expression.
+     */
+    Expression get(int row, int column) {
+        return switch (tag(row, column)) {
+            case NUMBER -> constant(number(row, column));
+            case ERROR -> ERRORS[(int) number(row, column)];
+            case OTHER -> others.getOrDefault(key(row, column), fill);
+            default -> fill != null && fillTag == EMPTY ? fill : NOTHING;
+        };
+    }
+
+    /**
+     * Store the value of a cell, a null value is stored as empty.
+     * @return The value that was replaced.
+     */
+    Expression put(int row, int column, Expression value) {
+        Expression previous = get(row, column);
+        boolean wasOther = tag(row, column) == OTHER;
+        int tag = tagOf(value);
+        long number = numberOf(value);
+        if (!isAllocated(row, column) && tag == fillTag && number == fillNumber
+                && (tag != OTHER || value == fill)) {
+            return previous;
+        }
+        set(row, column, tag, number);
+        if (tag == OTHER) {
+            others.put(key(row, column), value);
+        } else if (wasOther) {
+            others.remove(key(row, column));
+        }
+        return previous;
+    }
+
+    /**
+     * Select the shift of the tag of a cell within its word.
+     */
+    protected static int tagShift(int row) {
+        return (row & 31) << 1;
+    }
+
+    /**
+     * The index of a cell within its chunk.
+     */
+    protected static int offset(int row) {
+        return row & (CHUNK - 1);
+    }
+
+    /**
+     * The index of the chunk holding a row.
+     */
+    protected static int chunk(int row) {
+        return row >>> SHIFT;
+    }
+
+    private static int tagOf(Expression value) {
+        if (value == null || value.getClass() == Nothing.class) {
+            return EMPTY;
+        }
+        if (value.getClass() == Constant.class) {
+            return NUMBER;
+        }
+        return value instanceof ErrorValue ? ERROR : OTHER;
+    }
+
+    private static long numberOf(Expression value) {
+        return switch (tagOf(value)) {
+            case NUMBER -> ((Constant) value).getValue();
+            case ERROR -> errorIndex(value);
+            default -> 0;
+        };
+    }
+
+    private static int errorIndex(Expression error) {
+        for (int i = 0; i < ERRORS.length; i++) {
+            if (ERRORS[i] == error) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown error " + error.render());
+    }
+
+    private static Constant constant(long number) {
+        if (number >= CACHED_MIN && number <= CACHED_MAX) {
+            return CACHED[(int) number - CACHED_MIN];
+        }
+        return new Constant(number);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << Integer.SIZE) | column;
+    }
+}
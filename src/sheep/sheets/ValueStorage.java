@@ -0,0 +1,21 @@
+package sheep.sheets;
+
+/**
+ * Where a {@link Sheet} keeps the evaluated values of its cells,
+ * selected with {@link SheetBuilder#valueStorage(ValueStorage)}.
+ * <p>
+ * Either way values are stored column by column in chunks that are only allocated once
+ * one of their cells differs from the default, and cells that have never been updated
+ * hold no formula object, so an empty sheet costs almost nothing.
+ */
+public enum ValueStorage {
+    /** Values are stored in arrays on the Java heap. */
+    HEAP,
+    /**
+     * Values are stored outside the Java heap, in direct buffers allocated in slabs of
+     * up to 64 MiB, so that the garbage collector never scans or copies them.
+     * Only the index of each chunk is kept on the heap.
+     * The total is limited by -XX:MaxDirectMemorySize, which defaults to the maximum heap size.
+     */
+    OFF_HEAP
+}
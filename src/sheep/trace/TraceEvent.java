@@ -0,0 +1,26 @@
+package sheep.trace;
+
+/**
+ * A single call recorded in a trace.
+ *
+ * @param kind The kind of call.
+ * @param nanos Nanoseconds from the start of the recording until the call started.
+ * @param row The row index of the cell.
+ * @param column The column index of the cell.
+ * @param input The input of an update or snapshot, otherwise null.
+ */
+public record TraceEvent(Kind kind, long nanos, int row, int column, String input) {
+    /**
+     * The kinds of call recorded in a trace.
+     */
+    public enum Kind {
+        /** The formula a cell held when recording started, not timed. */
+        SNAPSHOT,
+        /** A call to update a cell. */
+        UPDATE,
+        /** A read of the value of a cell. */
+        VALUE,
+        /** A read of the formula of a cell. */
+        FORMULA
+    }
+}
@@ -0,0 +1,103 @@
+package sheep.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the events of a trace written by {@link TraceRecorder}, in the order they were recorded.
+ */
+public class TraceReader implements Closeable {
+    private static final TraceEvent.Kind[] KINDS = TraceEvent.Kind.values();
+
+    private final DataInputStream in;
+    private final int rows;
+    private final int columns;
+    private long nanos;
+
+    /**
+     * Construct a reader, immediately reading the header of the trace.
+     *
+     * @param in The trace to read, closed along with the reader.
+     * @throws IOException If the trace cannot be read or is not a trace.
+     */
+    public TraceReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (this.in.readInt() != TraceRecorder.MAGIC) {
+            throw new IOException("Not a sheet trace");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != TraceRecorder.VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        this.rows = (int) readNumber();
+        this.columns = (int) readNumber();
+    }
+
+    /**
+     * The number of rows of the recorded sheet.
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * The number of columns of the recorded sheet.
+     * @return The number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Read the next event of the trace.
+     *
+     * @return The next event, or null at the end of the trace.
+     * @throws IOException If the trace cannot be read or is truncated.
+     */
+    public TraceEvent next() throws IOException {
+        int tag = in.read();
+        if (tag < 0) {
+            return null;
+        }
+        if (tag >= KINDS.length) {
+            throw new IOException("Corrupt trace: unknown event " + tag);
+        }
+        TraceEvent.Kind kind = KINDS[tag];
+        nanos += readNumber();
+        int row = (int) readNumber();
+        int column = (int) readNumber();
+        String input = null;
+        if (kind == TraceEvent.Kind.UPDATE || kind == TraceEvent.Kind.SNAPSHOT) {
+            byte[] bytes = new byte[(int) readNumber()];
+            in.readFully(bytes);
+            input = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new TraceEvent(kind, nanos, row, column, input);
+    }
+
+    private long readNumber() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int next = in.read();
+            if (next < 0) {
+                throw new EOFException("Truncated trace");
+            }
+            value |= (long) (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt trace: number too long");
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,132 @@
+package sheep.trace;
+
+import sheep.core.SheetUpdate;
+import sheep.core.SheetView;
+import sheep.core.UpdateResponse;
+import sheep.core.ViewElement;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wraps a view and updater of a sheet, recording every call made through it to a trace.
+ * <p>
+ * A trace starts with a header holding the size of the sheet and a snapshot of every
+ * non-empty formula, followed by one record per call: a tag byte, the nanoseconds since
+ * the previous record, the row and column, and for updates the input.
+ * Numbers are written as variable length integers, so a typical read takes four bytes.
+ * The trace can be read back with {@link TraceReader}.
+ * <p>
+ * Calls may come from many threads, records are written in the order the calls started.
+ * The recorder must be closed to flush the end of the trace.
+ */
+public class TraceRecorder implements SheetView, SheetUpdate, Closeable {
+    static final int MAGIC = 0x53485452;
+    static final int VERSION = 1;
+
+    private final SheetView view;
+    private final SheetUpdate updater;
+    private final DataOutputStream out;
+    private long last;
+
+    /**
+     * Construct a recorder, immediately writing the header and snapshot of the view.
+     *
+     * @param view The view to record reads of.
+     * @param updater The updater to record updates of.
+     * @param out Where to write the trace, closed along with the recorder.
+     * @throws IOException If the header cannot be written.
+     */
+    public TraceRecorder(SheetView view, SheetUpdate updater, OutputStream out) throws IOException {
+        this.view = view;
+        this.updater = updater;
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        writeNumber(view.getRows());
+        writeNumber(view.getColumns());
+        for (int row = 0; row < view.getRows(); row++) {
+            for (int column = 0; column < view.getColumns(); column++) {
+                String formula = view.formulaAt(row, column).getContent();
+                if (!formula.isEmpty()) {
+                    write(TraceEvent.Kind.SNAPSHOT, 0, row, column, formula);
+                }
+            }
+        }
+        this.last = System.nanoTime();
+    }
+
+    @Override
+    public int getRows() {
+        return view.getRows();
+    }
+
+    @Override
+    public int getColumns() {
+        return view.getColumns();
+    }
+
+    @Override
+    public ViewElement valueAt(int row, int column) {
+        record(TraceEvent.Kind.VALUE, row, column, null);
+        return view.valueAt(row, column);
+    }
+
+    @Override
+    public ViewElement formulaAt(int row, int column) {
+        record(TraceEvent.Kind.FORMULA, row, column, null);
+        return view.formulaAt(row, column);
+    }
+
+    @Override
+    public UpdateResponse update(int row, int column, String input) {
+        record(TraceEvent.Kind.UPDATE, row, column, input);
+        return updater.update(row, column, input);
+    }
+
+    private synchronized void record(TraceEvent.Kind kind, int row, int column, String input) {
+        long now = System.nanoTime();
+        // Calls racing for the lock may arrive slightly out of order.
+        long delta = Math.max(0, now - last);
+        last = Math.max(now, last);
+        try {
+            write(kind, delta, row, column, input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(TraceEvent.Kind kind, long delta, int row, int column, String input)
+            throws IOException {
+        out.writeByte(kind.ordinal());
+        writeNumber(delta);
+        writeNumber(row);
+        writeNumber(column);
+        if (input != null) {
+            byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+            writeNumber(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Write a non-negative number seven bits at a time, least significant first.
+     */
+    private void writeNumber(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
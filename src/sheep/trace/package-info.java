@@ -0,0 +1,4 @@
+/**
+ * Recording of the calls made to a sheet, so that they can be replayed offline.
+ */
+package sheep.trace;
@@ -0,0 +1,71 @@
+package sheep.ui;
+
+import sheep.sheets.Profiler;
+import sheep.sheets.Sheet;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * A feature to profile the evaluation of a sheet from a user interface,
+ * registered with {@link UI#addFeature(String, String, Perform)}.
+ * <p>
+ * Performing the feature while the sheet is not being profiled offers to start profiling.
+ * Otherwise, it shows the hot cells report of the {@link Profiler}, offers to write the
+ * collapsed stacks to a file, and offers to stop profiling.
+ */
+public class ProfilerFeature implements Perform {
+    /** The number of cells shown in the hot cells report. */
+    private static final int HOT_CELLS = 20;
+
+    private final Sheet sheet;
+
+    /**
+     * Construct a new feature to profile the given sheet.
+     * @param sheet The sheet to profile.
+     */
+    public ProfilerFeature(Sheet sheet) {
+        this.sheet = sheet;
+    }
+
+    @Override
+    public void perform(int row, int column, Prompt prompt) {
+        // The sheet may be updated by a background thread that holds its lock,
+        // so the lock is only held while reading or changing the profile, never while prompting.
+        if (!sheet.isProfiling()) {
+            if (prompt.askYesNo("Start profiling evaluation?")) {
+                synchronized (sheet) {
+                    sheet.getProfiler().reset();
+                    sheet.setProfiling(true);
+                }
+            }
+            return;
+        }
+        String report;
+        synchronized (sheet) {
+            report = sheet.getProfiler().report(HOT_CELLS);
+        }
+        prompt.message(report);
+
+        Optional<String> file = prompt.ask("Write collapsed stacks to file (blank to skip):");
+        if (file.isPresent() && !file.get().isBlank()) {
+            try (Writer out = Files.newBufferedWriter(Path.of(file.get()), StandardCharsets.UTF_8)) {
+                synchronized (sheet) {
+                    sheet.getProfiler().writeCollapsedStacks(out);
+                }
+            } catch (IOException | InvalidPathException e) {
+                prompt.message("Unable to write " + file.get() + ": " + e.getMessage());
+            }
+        }
+        if (prompt.askYesNo("Stop profiling?")) {
+            synchronized (sheet) {
+                sheet.setProfiling(false);
+            }
+        }
+    }
+}
@@ -12,4 +12,10 @@ final class Configuration {
     static final int ROW_HEIGHT = 20;
     static final int HEADER_COLUMN_WIDTH = 50;
     static final int COLUMN_WIDTH = 100;
+    static final int FITTED_COLUMNS = 12;
+    static final int MAX_VIEWPORT_WIDTH = 1200;
+    static final int MAX_VIEWPORT_HEIGHT = 800;
+    static final String STALE_BACKGROUND = "light_gray";
+    static final String STALE_FOREGROUND = "dark_gray";
+    static final int RECALCULATION_DELAY = 50;
 }
@@ -9,7 +9,6 @@ import sheep.ui.UI;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
 import java.awt.*;
 import java.util.Optional;
@@ -54,27 +53,36 @@ public class GUI extends UI {
         JTable table = new JTable(model);
         style(table);
 
-        // When the model is updated, re-render the table and
-        // call any change callbacks (notably, saving).
-        model.addTableModelListener((e -> table.updateUI()));
+        // The table listens to the model itself and repaints only the
+        // cells named by each update event. Once the events of an update
+        // have been fired, call any change callbacks (notably, saving).
         for (OnChange callback : changeCallbacks) {
-            model.addTableModelListener(e -> callback.change());
+            model.onChange(callback);
         }
         setupMenu(frame, table);
 
-        // Configure the custom cell renderer and editor for each column.
-        for (int columnIndex = 0; columnIndex < table.getColumnCount(); columnIndex++) {
-            TableColumn column = table.getColumnModel().getColumn(columnIndex);
-
-            column.setCellRenderer(new CellRenderer(view));
-            column.setCellEditor(new CellEditor(view, new JTextField()));
-        }
+        // Every cell of the model is a Location, so a single renderer and
+        // editor serve all columns. Both read through a cache that only
+        // holds the cells around the visible part of the table, and show
+        // cells with edits still being recalculated as stale. The table is
+        // repainted once cells missing from the cache have been read.
+        ViewportCache cache = new ViewportCache(view, table::repaint);
+        model.addTableModelListener(cache);
+        SheetView display = model.pending(cache);
+        table.setDefaultRenderer(Location.class, new CellRenderer(display));
+        table.setDefaultEditor(Location.class, new CellEditor(display, new JTextField()));
+
+        // Only the visible rows of the table are painted, the headers
+        // are part of the model rather than a separate table header.
+        table.setTableHeader(null);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.getViewport().addChangeListener(e -> scrolled(table, cache));
 
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
 
-        panel.add(formulaView(table));
-        panel.add(table);
+        panel.add(formulaView(table, display));
+        panel.add(scrollPane);
 
         frame.add(panel);
 
@@ -82,6 +90,29 @@ public class GUI extends UI {
         frame.setVisible(true);
     }
 
+    /**
+     * Inform the cache of the cells visible after the table has scrolled.
+     */
+    private void scrolled(JTable table, ViewportCache cache) {
+        Rectangle visible = table.getVisibleRect();
+        int firstRow = table.rowAtPoint(visible.getLocation());
+        int lastRow = table.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        int firstColumn = table.columnAtPoint(visible.getLocation());
+        int lastColumn = table.columnAtPoint(new Point(visible.x + visible.width - 1, visible.y));
+        if (firstRow < 0 || firstColumn < 0) {
+            return;
+        }
+        if (lastRow < 0) {
+            lastRow = table.getRowCount() - 1;
+        }
+        if (lastColumn < 0) {
+            lastColumn = table.getColumnCount() - 1;
+        }
+        // Offset by one to account for headers.
+        cache.scrolled(Math.max(0, firstRow - 1), Math.max(0, lastRow - 1),
+                Math.max(0, firstColumn - 1), Math.max(0, lastColumn - 1));
+    }
+
     private class MessagePrompt implements Prompt {
 
         @Override
@@ -144,7 +175,7 @@ public class GUI extends UI {
             JMenuItem item = new JMenuItem(feature.name());
             item.addActionListener(e -> {
                 feature.action().perform(table.getSelectedRow() - 1, table.getSelectedColumn() - 1, prompt);
-                table.updateUI();
+                table.repaint();
             });
             menu.add(item);
         }
@@ -158,20 +189,31 @@ public class GUI extends UI {
     private void style(JTable table) {
         table.setGridColor(Configuration.LINE_COLOR);
         table.setRowHeight(Configuration.ROW_HEIGHT);
-        table.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
+        // Wide sheets scroll horizontally rather than squeezing every column into the window.
+        if (view.getColumns() > Configuration.FITTED_COLUMNS) {
+            table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        } else {
+            table.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
+        }
 
         TableColumnModel columnModel = table.getColumnModel();
         columnModel.getColumn(0).setPreferredWidth(Configuration.HEADER_COLUMN_WIDTH);
-        for (int column = 1; column < view.getColumns(); column++) {
+        for (int column = 1; column < columnModel.getColumnCount(); column++) {
             columnModel.getColumn(column).setPreferredWidth(Configuration.COLUMN_WIDTH);
         }
+
+        Dimension size = table.getPreferredSize();
+        table.setPreferredScrollableViewportSize(new Dimension(
+                Math.min(size.width, Configuration.MAX_VIEWPORT_WIDTH),
+                Math.min(size.height, Configuration.MAX_VIEWPORT_HEIGHT)));
     }
 
     /**
      * Create a new component that is linked to the value of the currently highlighted cell.
      * When the highlighted cell changes, the formula is updated.
+     * The formula is read from the same view as the table, so it never waits for a recalculation.
      */
-    private Component formulaView(JTable table) {
+    private Component formulaView(JTable table, SheetView display) {
         TextField formulaView = new TextField();
         formulaView.setEnabled(false);
 
@@ -183,7 +225,7 @@ public class GUI extends UI {
                 return;
             }
 
-            ViewElement element = view.formulaAt(
+            ViewElement element = display.formulaAt(
                     table.getSelectedRow() - 1,
                     table.getSelectedColumn() - 1
             );
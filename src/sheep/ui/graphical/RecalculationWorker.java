@@ -0,0 +1,294 @@
+package sheep.ui.graphical;
+
+import sheep.core.SheetUpdate;
+import sheep.core.SheetView;
+import sheep.core.UpdateResponse;
+import sheep.core.ViewElement;
+import sheep.sheets.CellLocation;
+import sheep.sheets.Sheet;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Applies edits to a sheet on a background thread so that slow recalculations
+ * do not freeze the window.
+ * <p>
+ * Edits are collected on the event dispatch thread and only handed to the
+ * background thread once no further edit has arrived for
+ * {@link Configuration#RECALCULATION_DELAY} milliseconds.
+ * A later edit to the same cell replaces an earlier one that has not started.
+ * Until an edit has been applied, its cell is rendered as stale by the view
+ * returned from {@link #decorate(SheetView)}, and so is every cell that uses it
+ * if the view is a {@link Sheet}.
+ * The cells that use an edited cell are found on the background thread, after which
+ * the {@link Marked} callback is called on the event dispatch thread.
+ * Once a batch of edits has been applied, the {@link Completion} is called
+ * on the event dispatch thread.
+ * The background thread synchronizes on the view while reading or updating the sheet,
+ * the event dispatch thread never does.
+ */
+class RecalculationWorker {
+    /**
+     * Called on the event dispatch thread after a batch of edits has been applied.
+     */
+    interface Completion {
+        /**
+         * @param edits The edits that were applied, in the order they were applied.
+         * @param failures The message of each edit that could not be applied.
+         */
+        void completed(List<Edit> edits, List<String> failures);
+    }
+
+    /**
+     * Called on the event dispatch thread once the cells that use an edited cell have been found.
+     */
+    interface Marked {
+        /**
+         * @param row The row index of the edited cell.
+         * @param column The column index of the edited cell.
+         */
+        void marked(int row, int column);
+    }
+
+    /**
+     * An edit of a single cell.
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     * @param input The input to update the cell with.
+     */
+    record Edit(int row, int column, String input) {
+
+    }
+
+    private final SheetView view;
+    private final SheetUpdate updater;
+    private final Completion completion;
+    private final Marked marked;
+    private final Timer debounce;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "sheet-recalculation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Edits waiting for the debounce delay to expire, only accessed on the event dispatch thread. */
+    private final Map<Long, Edit> waiting = new LinkedHashMap<>();
+    /** Edits handed to the background thread, only accessed on the event dispatch thread. */
+    private final Map<Long, Edit> running = new HashMap<>();
+    /**
+     * The cells that use each cell with a pending edit, empty until found by the background thread.
+     * Only accessed on the event dispatch thread.
+     */
+    private final Map<Long, Set<Long>> dependents = new HashMap<>();
+    /** The number of pending edits each of those cells uses, only accessed on the event dispatch thread. */
+    private final Map<Long, Integer> affected = new HashMap<>();
+
+    /**
+     * Construct a new worker.
+     *
+     * @param view The view being updated, used as the lock for updates.
+     * @param updater The updater to apply edits with.
+     * @param completion Called after each batch of edits has been applied.
+     * @param marked Called once the cells that use an edited cell have been found.
+     */
+    public RecalculationWorker(SheetView view, SheetUpdate updater, Completion completion, Marked marked) {
+        this.view = view;
+        this.updater = updater;
+        this.completion = completion;
+        this.marked = marked;
+        this.debounce = new Timer(Configuration.RECALCULATION_DELAY, e -> dispatch());
+        this.debounce.setRepeats(false);
+    }
+
+    /**
+     * Queue an edit of a cell. Must be called on the event dispatch thread.
+     *
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     * @param input The input to update the cell with.
+     */
+    public void submit(int row, int column, String input) {
+        long key = key(row, column);
+        // Remove first so that the replacement is ordered after other waiting edits.
+        waiting.remove(key);
+        waiting.put(key, new Edit(row, column, input));
+        if (!dependents.containsKey(key) && view instanceof Sheet sheet) {
+            dependents.put(key, Set.of());
+            worker.submit(() -> mark(sheet, row, column));
+        }
+        debounce.restart();
+    }
+
+    /**
+     * The edit of a cell that has not yet been applied, if any.
+     * Must be called on the event dispatch thread.
+     *
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     * @return The latest edit of the cell not yet applied, or null.
+     */
+    public Edit pending(int row, int column) {
+        long key = key(row, column);
+        Edit edit = waiting.get(key);
+        return edit != null ? edit : running.get(key);
+    }
+
+    /**
+     * The cells that use a cell with a pending edit, each as row * columns + column.
+     * Must be called on the event dispatch thread.
+     *
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     * @return The cells rendered as stale because of the edit, empty if none.
+     */
+    public Set<Long> dependents(int row, int column) {
+        return dependents.getOrDefault(key(row, column), Set.of());
+    }
+
+    /**
+     * Whether a cell has a pending edit or uses a cell with a pending edit.
+     * Must be called on the event dispatch thread.
+     *
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     * @return True if the value of the cell may change once the pending edits are applied.
+     */
+    public boolean isStale(int row, int column) {
+        return pending(row, column) != null || affected.containsKey(key(row, column));
+    }
+
+    /**
+     * Wrap a view so that cells with pending edits, and the cells that use them, render as stale.
+     * The formula of a stale cell is the pending input.
+     *
+     * @param base The view to wrap.
+     * @return A view that marks cells with pending edits.
+     */
+    public SheetView decorate(SheetView base) {
+        return new StaleView(base);
+    }
+
+    private void dispatch() {
+        List<Edit> batch = new ArrayList<>(waiting.values());
+        for (Map.Entry<Long, Edit> entry : waiting.entrySet()) {
+            running.put(entry.getKey(), entry.getValue());
+        }
+        waiting.clear();
+
+        worker.submit(() -> {
+            List<String> failures = new ArrayList<>();
+            for (Edit edit : batch) {
+                UpdateResponse response;
+                synchronized (view) {
+                    response = updater.update(edit.row(), edit.column(), edit.input());
+                }
+                if (!response.isSuccess()) {
+                    failures.add(response.getMessage());
+                }
+            }
+            SwingUtilities.invokeLater(() -> {
+                for (Edit edit : batch) {
+                    running.remove(key(edit.row(), edit.column()), edit);
+                }
+                completion.completed(batch, failures);
+                for (Edit edit : batch) {
+                    forget(edit.row(), edit.column());
+                }
+            });
+        });
+    }
+
+    /**
+     * Find the cells that transitively use an edited cell on the background thread,
+     * then render them as stale on the event dispatch thread if the edit is still pending.
+     * Runs before the batch applying the edit, which is submitted after it.
+     */
+    private void mark(Sheet sheet, int row, int column) {
+        Set<Long> users = new HashSet<>();
+        synchronized (view) {
+            for (CellLocation user : sheet.usedBy(new CellLocation(row, column))) {
+                users.add(key(user.getRow(), user.getColumn()));
+            }
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (dependents.replace(key(row, column), users) == null) {
+                return;
+            }
+            for (long user : users) {
+                affected.merge(user, 1, Integer::sum);
+            }
+            marked.marked(row, column);
+        });
+    }
+
+    /**
+     * Stop rendering the users of a cell as stale once it has no pending edit.
+     */
+    private void forget(int row, int column) {
+        if (pending(row, column) != null) {
+            return;
+        }
+        Set<Long> users = dependents.remove(key(row, column));
+        if (users == null) {
+            return;
+        }
+        for (long user : users) {
+            affected.computeIfPresent(user, (cell, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private long key(int row, int column) {
+        return (long) row * view.getColumns() + column;
+    }
+
+    /**
+     * Renders cells with pending edits, and the cells that use them,
+     * in the stale colours of {@link Configuration}.
+     */
+    private class StaleView implements SheetView {
+        private final SheetView base;
+
+        StaleView(SheetView base) {
+            this.base = base;
+        }
+
+        @Override
+        public int getRows() {
+            return base.getRows();
+        }
+
+        @Override
+        public int getColumns() {
+            return base.getColumns();
+        }
+
+        @Override
+        public ViewElement valueAt(int row, int column) {
+            ViewElement element = base.valueAt(row, column);
+            if (!isStale(row, column)) {
+                return element;
+            }
+            return new ViewElement(element.getContent(),
+                    Configuration.STALE_BACKGROUND, Configuration.STALE_FOREGROUND);
+        }
+
+        @Override
+        public ViewElement formulaAt(int row, int column) {
+            Edit edit = pending(row, column);
+            if (edit == null) {
+                return base.formulaAt(row, column);
+            }
+            return new ViewElement(edit.input(),
+                    Configuration.STALE_BACKGROUND, Configuration.STALE_FOREGROUND);
+        }
+    }
+}
@@ -1,30 +1,53 @@
 package sheep.ui.graphical;
 
+import sheep.core.ObservableSheet;
 import sheep.core.SheetUpdate;
 import sheep.core.SheetView;
-import sheep.core.UpdateResponse;
+import sheep.events.RepaintEvent;
+import sheep.ui.OnChange;
 
 import javax.swing.*;
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.TableModel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * An implementation of the {@link TableModel} that stores
  * {@link Location} elements so that the renderer can query the
  * {@link SheetView}.
- * When a cell is updated, {@link SheetUpdate} is invoked to
+ * When a cell is updated, the edit is handed to a {@link RecalculationWorker}
+ * which invokes {@link SheetUpdate} on a background thread to
  * update the underlying sheet model.
  * A popup is displayed if the update is invalid.
+ * <p>
+ * If the view is an {@link ObservableSheet}, only the cells that changed
+ * are reported to listeners, as one event per run of consecutive rows in a column.
+ * Otherwise, every update is reported as a change to the whole table.
  */
 class SheetModel implements TableModel {
     private final JFrame parent;
     private final SheetView view;
-    private final SheetUpdate updater;
+    private final RecalculationWorker worker;
 
     private final List<TableModelListener> listeners = new ArrayList<>();
+    private final List<OnChange> changeCallbacks = new ArrayList<>();
+
+    /**
+     * Recently returned locations, reused rather than allocated for every
+     * request of the table. Only accessed on the event dispatch thread.
+     */
+    private final Location[] locations = new Location[1 << 12];
+
+    /**
+     * Cells changed since the last events were fired, packed as row * columns + column.
+     * Guarded by this model, as sheets may be updated outside the event dispatch thread.
+     */
+    private long[] changed = new long[16];
+    private int changedCount;
+    private boolean flushScheduled;
 
     /**
      * Create a new sheet model.
@@ -36,7 +59,124 @@ class SheetModel implements TableModel {
     public SheetModel(JFrame parent, SheetView view, SheetUpdate updater) {
         this.parent = parent;
         this.view = view;
-        this.updater = updater;
+        this.worker = new RecalculationWorker(view, updater, this::completed, this::repaintDependents);
+
+        if (view instanceof ObservableSheet observable) {
+            observable.addCellListener(this::cellChanged);
+        }
+    }
+
+    /**
+     * Register a callback to be called once after each batch of changes has been reported.
+     *
+     * @param callback The callback to call.
+     */
+    public void onChange(OnChange callback) {
+        changeCallbacks.add(callback);
+    }
+
+    /**
+     * Wrap a view so that cells with edits not yet applied render as stale.
+     *
+     * @param base The view to wrap.
+     * @return A view that marks cells with pending edits.
+     */
+    public SheetView pending(SheetView base) {
+        return worker.decorate(base);
+    }
+
+    /**
+     * Repaint the cells of a batch of applied edits, report the changes they caused,
+     * and show a popup if any of the edits were invalid.
+     */
+    private void completed(List<RecalculationWorker.Edit> edits, List<String> failures) {
+        RepaintEvent event = new RepaintEvent();
+        event.begin();
+        for (RecalculationWorker.Edit edit : edits) {
+            // Offset by one to account for headers.
+            fire(new TableModelEvent(this, edit.row() + 1, edit.row() + 1, edit.column() + 1));
+            repaintDependents(edit.row(), edit.column());
+        }
+        event.report(edits.size(), edits.size());
+        if (view instanceof ObservableSheet) {
+            flush();
+        } else {
+            event = new RepaintEvent();
+            event.begin();
+            fire(new TableModelEvent(this));
+            event.report(view.getRows() * view.getColumns(), 1);
+            for (OnChange callback : changeCallbacks) {
+                callback.change();
+            }
+        }
+        if (!failures.isEmpty()) {
+            JOptionPane.showMessageDialog(parent, String.join("\n", failures));
+        }
+    }
+
+    /**
+     * Record a changed cell, scheduling events to be fired on the event dispatch thread
+     * if the change did not come from an edit within the table.
+     */
+    private synchronized void cellChanged(int row, int column) {
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, changedCount * 2);
+        }
+        changed[changedCount++] = (long) row * view.getColumns() + column;
+        if (!flushScheduled) {
+            flushScheduled = true;
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    /**
+     * Fire an update event for each run of consecutive changed rows within a column.
+     * Must be called on the event dispatch thread.
+     */
+    private void flush() {
+        long[] cells;
+        synchronized (this) {
+            cells = Arrays.copyOf(changed, changedCount);
+            changedCount = 0;
+            flushScheduled = false;
+        }
+        if (cells.length == 0) {
+            return;
+        }
+        RepaintEvent event = new RepaintEvent();
+        event.begin();
+        int events = 0;
+
+        // Order column-major so that consecutive rows of a column are adjacent.
+        int columns = view.getColumns();
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (cells[i] % columns) * view.getRows() + cells[i] / columns;
+        }
+        Arrays.sort(cells);
+
+        int start = 0;
+        for (int i = 1; i <= cells.length; i++) {
+            if (i == cells.length || cells[i] > cells[i - 1] + 1
+                    || (cells[i] != cells[i - 1] && cells[i] % view.getRows() == 0)) {
+                int column = (int) (cells[start] / view.getRows());
+                int firstRow = (int) (cells[start] % view.getRows());
+                int lastRow = (int) (cells[i - 1] % view.getRows());
+                // Offset by one to account for headers.
+                fire(new TableModelEvent(this, firstRow + 1, lastRow + 1, column + 1));
+                events++;
+                start = i;
+            }
+        }
+        event.report(cells.length, events);
+        for (OnChange callback : changeCallbacks) {
+            callback.change();
+        }
+    }
+
+    private void fire(TableModelEvent event) {
+        for (TableModelListener listener : listeners) {
+            listener.tableChanged(event);
+        }
     }
 
     @Override
@@ -74,6 +214,8 @@ class SheetModel implements TableModel {
      * <p>
      * If the cell is a header, the string value of that header is returned.
      * Otherwise, a {@link Location} representing the cell is returned.
+     * Locations are immutable, so the same instance is returned for the same
+     * cell while it remains in the table's recently used locations.
      */
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
@@ -87,27 +229,38 @@ class SheetModel implements TableModel {
             return rowIndex - 1;
         }
 
-        return new Location(rowIndex - 1, columnIndex - 1);
+        int slot = (rowIndex * 0x9E3779B1 + columnIndex) >>> 20;
+        Location location = locations[slot];
+        if (location == null || location.row() != rowIndex - 1
+                || location.column() != columnIndex - 1) {
+            location = new Location(rowIndex - 1, columnIndex - 1);
+            locations[slot] = location;
+        }
+        return location;
     }
 
     /**
-     * When a value is updated, use the {@link SheetUpdate} to try to update
-     * the underlying model.
-     * If the update is unsuccessful, render a message box and prevent exiting
-     * the editing mode by throwing a runtime exception.
+     * When a value is updated, submit the edit to the {@link RecalculationWorker}
+     * and repaint the cell as stale until the edit has been applied.
+     * The cells that use it are repainted as stale once the worker has found them.
+     * If the update is unsuccessful, a message box is rendered once the
+     * worker has tried to apply it.
      */
     @Override
     public void setValueAt(Object aValue, int rowIndex, int columnIndex) {
         if (aValue instanceof String value) {
-            UpdateResponse response = updater.update(rowIndex - 1, columnIndex - 1, value);
-            if  (!response.isSuccess()) {
-                JOptionPane.showMessageDialog(parent, response.getMessage());
-                throw new RuntimeException();
-            }
+            worker.submit(rowIndex - 1, columnIndex - 1, value);
+            fire(new TableModelEvent(this, rowIndex, rowIndex, columnIndex));
         }
+    }
 
-        for (TableModelListener listener : listeners) {
-            listener.tableChanged(new TableModelEvent(this));
+    /**
+     * Schedule a repaint of the cells that use an edited cell, as their staleness has changed.
+     * Must be called on the event dispatch thread.
+     */
+    private void repaintDependents(int row, int column) {
+        for (long cell : worker.dependents(row, column)) {
+            cellChanged((int) (cell / view.getColumns()), (int) (cell % view.getColumns()));
         }
     }
 
@@ -0,0 +1,255 @@
+package sheep.ui.graphical;
+
+import sheep.core.SheetView;
+import sheep.core.ViewElement;
+import sheep.events.ValueBatchEvent;
+import sheep.ui.OnChange;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link SheetView} that remembers the values and formulas of a fixed number of cells
+ * around the visible part of the table.
+ * When the table is scrolled, the cells just beyond the visible part,
+ * in the direction of scrolling, are computed on a background thread.
+ * <p>
+ * The cache is only read and written on the event dispatch thread, which never reads
+ * the underlying view, so painting does not wait for a recalculation holding the view's lock.
+ * A cell that is not remembered renders as empty, and it is read on the background thread,
+ * synchronized on the view, after which the change callback is called to repaint the table.
+ * As a table model listener, the cache marks any cell named by an update event as outdated:
+ * it renders its previous value and formula until it has been read again.
+ */
+class ViewportCache implements SheetView, TableModelListener {
+    /** The number of cells remembered, must be a power of two. */
+    private static final int CAPACITY = 1 << 14;
+
+    /** Rendered for a cell that has not been read from the view yet. */
+    private static final ViewElement UNREAD = new ViewElement("", "white", "black");
+
+    private final SheetView view;
+    private final OnChange loaded;
+    private final long[] keys = new long[CAPACITY];
+    private final ViewElement[] elements = new ViewElement[CAPACITY];
+    private final ViewElement[] formulas = new ViewElement[CAPACITY];
+    private final boolean[] current = new boolean[CAPACITY];
+    /** Cells waiting to be read from the view. */
+    private final Set<Long> requested = new HashSet<>();
+    /** Requested cells not yet handed to the background thread. */
+    private final List<Long> unsent = new ArrayList<>();
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "sheet-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private int generation;
+    private int lastFirstRow;
+    private Future<?> pending;
+
+    /**
+     * Construct a new cache of the given view.
+     *
+     * @param view The view to cache.
+     * @param loaded Called on the event dispatch thread after requested cells have been read.
+     */
+    public ViewportCache(SheetView view, OnChange loaded) {
+        this.view = view;
+        this.loaded = loaded;
+        Arrays.fill(keys, -1);
+    }
+
+    @Override
+    public int getRows() {
+        return view.getRows();
+    }
+
+    @Override
+    public int getColumns() {
+        return view.getColumns();
+    }
+
+    @Override
+    public ViewElement valueAt(int row, int column) {
+        int slot = lookup(row, column);
+        return slot < 0 ? UNREAD : elements[slot];
+    }
+
+    @Override
+    public ViewElement formulaAt(int row, int column) {
+        int slot = lookup(row, column);
+        return slot < 0 ? UNREAD : formulas[slot];
+    }
+
+    /**
+     * Find the slot remembering a cell, requesting the cell if it is missing or outdated.
+     *
+     * @return The slot of the cell, or -1 if it is not remembered.
+     */
+    private int lookup(int row, int column) {
+        long key = (long) row * view.getColumns() + column;
+        int slot = slot(key);
+        if (keys[slot] != key) {
+            request(key);
+            return -1;
+        }
+        if (!current[slot]) {
+            request(key);
+        }
+        return slot;
+    }
+
+    /**
+     * Request a cell be read, reading every cell requested while painting in one batch.
+     */
+    private void request(long key) {
+        if (!requested.add(key)) {
+            return;
+        }
+        if (unsent.isEmpty()) {
+            SwingUtilities.invokeLater(this::fetch);
+        }
+        unsent.add(key);
+    }
+
+    /**
+     * Read the requested cells on the background thread.
+     */
+    private void fetch() {
+        long[] cells = new long[unsent.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = unsent.get(i);
+        }
+        unsent.clear();
+        int expected = generation;
+        prefetcher.submit(() -> {
+            ViewElement[] values = new ViewElement[cells.length];
+            ViewElement[] read = new ViewElement[cells.length];
+            int columns = view.getColumns();
+            synchronized (view) {
+                for (int i = 0; i < cells.length; i++) {
+                    int row = (int) (cells[i] / columns);
+                    int column = (int) (cells[i] % columns);
+                    values[i] = view.valueAt(row, column);
+                    read[i] = view.formulaAt(row, column);
+                }
+            }
+            SwingUtilities.invokeLater(() -> {
+                store(cells, values, read, expected);
+                loaded.change();
+            });
+        });
+    }
+
+    /**
+     * Remember cells read on the background thread. Cells read before the latest
+     * update event may be out of date, so are remembered as outdated.
+     */
+    private void store(long[] cells, ViewElement[] values, ViewElement[] read, int expected) {
+        for (int i = 0; i < cells.length; i++) {
+            int slot = slot(cells[i]);
+            keys[slot] = cells[i];
+            elements[slot] = values[i];
+            formulas[slot] = read[i];
+            current[slot] = generation == expected;
+            requested.remove(cells[i]);
+        }
+    }
+
+    /**
+     * Inform the cache of the cells now visible, prefetching the values of
+     * the next screen of rows in the direction the table was scrolled.
+     *
+     * @param firstRow The first visible row.
+     * @param lastRow The last visible row.
+     * @param firstColumn The first visible column.
+     * @param lastColumn The last visible column.
+     */
+    public void scrolled(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        int span = lastRow - firstRow + 1;
+        int from;
+        int to;
+        if (firstRow >= lastFirstRow) {
+            from = lastRow + 1;
+            to = Math.min(view.getRows(), lastRow + 1 + span);
+        } else {
+            from = Math.max(0, firstRow - span);
+            to = firstRow;
+        }
+        lastFirstRow = firstRow;
+
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        int expected = generation;
+        pending = prefetcher.submit(() -> prefetch(from, to, firstColumn, lastColumn + 1, expected));
+    }
+
+    /**
+     * Compute the values of a region on the prefetch thread and then store them on the
+     * event dispatch thread, unless the sheet changed in the meantime.
+     */
+    private void prefetch(int fromRow, int toRow, int fromColumn, int toColumn, int expected) {
+        int columns = toColumn - fromColumn;
+        if (fromRow >= toRow || columns <= 0) {
+            return;
+        }
+        ValueBatchEvent event = new ValueBatchEvent();
+        event.begin();
+        long[] cells = new long[(toRow - fromRow) * columns];
+        ViewElement[] prefetched = new ViewElement[cells.length];
+        ViewElement[] read = new ViewElement[cells.length];
+        for (int row = fromRow; row < toRow; row++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            synchronized (view) {
+                for (int column = fromColumn; column < toColumn; column++) {
+                    int i = (row - fromRow) * columns + column - fromColumn;
+                    cells[i] = (long) row * view.getColumns() + column;
+                    prefetched[i] = view.valueAt(row, column);
+                    read[i] = view.formulaAt(row, column);
+                }
+            }
+        }
+        event.report("prefetch", fromRow, fromColumn, toRow - fromRow, columns);
+        SwingUtilities.invokeLater(() -> {
+            if (generation == expected) {
+                store(cells, prefetched, read, expected);
+            }
+        });
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        generation++;
+        if (e.getFirstRow() == TableModelEvent.HEADER_ROW
+                || e.getLastRow() == Integer.MAX_VALUE
+                || e.getColumn() == TableModelEvent.ALL_COLUMNS) {
+            Arrays.fill(current, false);
+            return;
+        }
+        // Offset by one to account for headers.
+        for (int row = e.getFirstRow() - 1; row < e.getLastRow(); row++) {
+            long key = (long) row * view.getColumns() + e.getColumn() - 1;
+            if (keys[slot(key)] == key) {
+                current[slot(key)] = false;
+            }
+        }
+    }
+
+    private static int slot(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & (CAPACITY - 1);
+    }
+}
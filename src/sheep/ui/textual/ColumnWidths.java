@@ -0,0 +1,142 @@
+package sheep.ui.textual;
+
+import sheep.core.CellListener;
+import sheep.core.ObservableSheet;
+import sheep.core.SheetView;
+
+import java.util.Arrays;
+
+/**
+ * Index of the widest rendered value in each column of a view.
+ * <p>
+ * The index remembers the width of every cell and how many cells of each width
+ * are in each column, so a changed cell only adjusts the counts of its column.
+ * If the view is an {@link ObservableSheet}, changed cells are remembered as they
+ * are reported and re-measured on the next lookup. Otherwise, the view cannot report
+ * its changes and {@link #rebuild()} must be called before the widths are used.
+ */
+class ColumnWidths implements CellListener {
+    private final SheetView view;
+    private final boolean observable;
+
+    /** Width of each cell, indexed by column then row. */
+    private int[][] widths;
+    /** Number of cells of each width, indexed by column then width. */
+    private int[][] counts;
+    private int[] max;
+
+    /** Cells changed since the last lookup, packed as row * columns + column. */
+    private long[] changed = new long[16];
+    private int changedCount;
+    private boolean stale = true;
+
+    /**
+     * Construct a new index of the widths of the given view.
+     *
+     * @param view The view to measure.
+     */
+    public ColumnWidths(SheetView view) {
+        this.view = view;
+        this.observable = view instanceof ObservableSheet;
+        if (observable) {
+            ((ObservableSheet) view).addCellListener(this);
+        }
+    }
+
+    /**
+     * Whether the index keeps itself up to date as the view changes.
+     *
+     * @return True if the view reports its changes.
+     */
+    public boolean isIncremental() {
+        return observable;
+    }
+
+    /**
+     * The width of the widest rendered value in the column.
+     *
+     * @param column The column index.
+     * @return The length of the longest value in the column.
+     */
+    public int width(int column) {
+        refresh();
+        return max[column];
+    }
+
+    @Override
+    public void changed(int row, int column) {
+        if (stale) {
+            return;
+        }
+        if (changedCount == changed.length) {
+            if (changedCount >= (long) view.getRows() * view.getColumns() / 4) {
+                // Cheaper to measure the whole view again.
+                stale = true;
+                changedCount = 0;
+                return;
+            }
+            changed = Arrays.copyOf(changed, changedCount * 2);
+        }
+        changed[changedCount++] = (long) row * view.getColumns() + column;
+    }
+
+    /**
+     * Measure every cell of the view again.
+     */
+    public void rebuild() {
+        stale = true;
+        changedCount = 0;
+    }
+
+    private void refresh() {
+        if (stale) {
+            measureAll();
+            return;
+        }
+        int columns = view.getColumns();
+        for (int i = 0; i < changedCount; i++) {
+            int row = (int) (changed[i] / columns);
+            int column = (int) (changed[i] % columns);
+            measure(row, column);
+        }
+        changedCount = 0;
+    }
+
+    private void measureAll() {
+        int rows = view.getRows();
+        int columns = view.getColumns();
+        widths = new int[columns][rows];
+        counts = new int[columns][16];
+        max = new int[columns];
+        for (int column = 0; column < columns; column++) {
+            counts[column][0] = rows;
+            for (int row = 0; row < rows; row++) {
+                measure(row, column);
+            }
+        }
+        stale = false;
+        changedCount = 0;
+    }
+
+    private void measure(int row, int column) {
+        int previous = widths[column][row];
+        int width = view.valueAt(row, column).getContent().length();
+        if (width == previous) {
+            return;
+        }
+        if (width >= counts[column].length) {
+            counts[column] = Arrays.copyOf(counts[column], Math.max(width + 1, counts[column].length * 2));
+        }
+        widths[column][row] = width;
+        counts[column][previous]--;
+        counts[column][width]++;
+
+        if (width > max[column]) {
+            max[column] = width;
+        } else if (previous == max[column]) {
+            while (max[column] > 0 && counts[column][max[column]] == 0) {
+                max[column]--;
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package sheep.ui.textual;
+
+import sheep.core.SheetView;
+
+import java.io.PrintStream;
+
+/**
+ * A scrollable window onto a view, drawn to an ANSI terminal.
+ * <p>
+ * Every cell of the window has a fixed width and position on the screen.
+ * The viewport remembers what it last drew at each position, and each call to
+ * {@link #draw(PrintStream)} moves the cursor to, and rewrites, only the
+ * positions whose text has changed. The work and output of a redraw therefore
+ * depend on the size of the window rather than the size of the sheet.
+ */
+class TerminalViewport {
+    private static final String ESCAPE = "\u001b[";
+    private static final int CELL_WIDTH = 10;
+
+    private final SheetView view;
+    private final int rows;
+    private final int columns;
+    private final int headerWidth;
+
+    private int top;
+    private int left;
+    /** The text last drawn at each position, including headers at index 0, or null before the first draw. */
+    private String[][] screen;
+
+    /**
+     * Construct a new viewport showing the top left of the view.
+     *
+     * @param view The view to draw.
+     * @param rows The number of rows to show at once.
+     * @param columns The number of columns to show at once.
+     */
+    public TerminalViewport(SheetView view, int rows, int columns) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Requires: rows > 0, columns > 0");
+        }
+        this.view = view;
+        this.rows = Math.min(rows, view.getRows());
+        this.columns = Math.min(columns, view.getColumns());
+        this.headerWidth = String.valueOf(view.getRows()).length();
+    }
+
+    /**
+     * The number of terminal lines used by the viewport.
+     *
+     * @return The number of lines drawn, including the column headers.
+     */
+    public int height() {
+        return rows + 1;
+    }
+
+    /**
+     * Scroll so that the given cell is within the viewport, as close to the top left as possible.
+     *
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     */
+    public void scrollTo(int row, int column) {
+        top = Math.max(0, Math.min(row, view.getRows() - rows));
+        left = Math.max(0, Math.min(column, view.getColumns() - columns));
+    }
+
+    /**
+     * Scroll by a number of pages.
+     *
+     * @param pages The number of pages to scroll down, negative to scroll up.
+     */
+    public void scrollPages(int pages) {
+        scrollTo(top + pages * rows, left);
+    }
+
+    /**
+     * Forget what was previously drawn, so that the next draw clears the screen
+     * and draws every position.
+     */
+    public void invalidate() {
+        screen = null;
+    }
+
+    /**
+     * Draw every position whose text differs from what was last drawn there,
+     * then move the cursor to the start of the line below the viewport
+     * and clear the remainder of the screen.
+     *
+     * @param out The terminal to draw to.
+     */
+    public void draw(PrintStream out) {
+        StringBuilder frame = new StringBuilder();
+        if (screen == null) {
+            screen = new String[rows + 1][columns + 1];
+            frame.append(ESCAPE).append("H").append(ESCAPE).append("2J");
+        }
+
+        for (int row = 0; row <= rows; row++) {
+            for (int column = 0; column <= columns; column++) {
+                String text = text(row, column);
+                if (!text.equals(screen[row][column])) {
+                    int position = column == 0 ? 0 : headerWidth + 2 + (column - 1) * (CELL_WIDTH + 3);
+                    frame.append(ESCAPE).append(row + 1).append(';').append(position + 1).append('H');
+                    frame.append(text);
+                    screen[row][column] = text;
+                }
+            }
+        }
+        frame.append(ESCAPE).append(rows + 2).append(";1H").append(ESCAPE).append('J');
+        out.print(frame);
+        out.flush();
+    }
+
+    /**
+     * The text drawn at a position, where row 0 and column 0 are the headers.
+     */
+    private String text(int row, int column) {
+        if (column == 0) {
+            String header = row == 0 ? "" : String.valueOf(top + row);
+            return fit(header, headerWidth) + " |";
+        }
+        String content;
+        if (row == 0) {
+            content = String.valueOf((char) ('A' + left + column - 1));
+        } else {
+            content = view.valueAt(top + row - 1, left + column - 1).getContent();
+        }
+        return " " + fit(content, CELL_WIDTH) + " |";
+    }
+
+    /**
+     * Pad or truncate the text to exactly the given width, marking truncated text with '~'.
+     */
+    private static String fit(String text, int width) {
+        if (text.length() > width) {
+            return text.substring(0, width - 1) + "~";
+        }
+        return text + " ".repeat(width - text.length());
+    }
+}
@@ -1,18 +1,43 @@
 package sheep.ui.textual;
 
+import sheep.core.BatchUpdate;
 import sheep.core.UpdateResponse;
 import sheep.core.SheetUpdate;
 import sheep.core.SheetView;
+import sheep.core.ViewElement;
+import sheep.events.ValueBatchEvent;
+import sheep.expression.basic.ErrorValue;
 import sheep.ui.UI;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
-import java.util.StringJoiner;
+import java.util.TreeMap;
 
 public class TextUI extends UI {
+    private static final int SCRIPT_BUFFER = 1 << 16;
+
     private final Scanner input;
     private final PrintStream output;
+    private final ColumnWidths widths;
+    private TerminalViewport viewport;
+    private final List<String> messages = new ArrayList<>();
+
+    /**
+     * A cell updated by a script since the updates were last committed.
+     * @param line The line of the last update staged to the cell.
+     * @param original The formula of the cell before the first staged update.
+     */
+    private record Staged(int line, String original) {
+
+    }
 
     public TextUI(SheetView view, SheetUpdate updater) {
         this(view, updater, System.out);
@@ -26,51 +51,92 @@ public class TextUI extends UI {
         super(view, updater);
         this.input = input;
         this.output = output;
+        this.widths = new ColumnWidths(view);
     }
 
-    private String columnHeaders(int columns) {
-        String[] values = new String[columns];
-        for (int column = 0; column < columns; column++) {
-            values[column] = String.valueOf(Character.valueOf((char) (column + 65)));
+    /**
+     * Show only a scrollable window of the sheet, redrawn in place with ANSI escape codes.
+     * After each action only the cells whose rendered content changed are redrawn.
+     * The window is moved with the "goto", "next" and "previous" actions.
+     * @param rows The number of rows to show at once.
+     * @param columns The number of columns to show at once.
+     */
+    public void useViewport(int rows, int columns) {
+        this.viewport = new TerminalViewport(view, rows, columns);
+    }
+
+    /**
+     * Print a message for the user, or hold it until the viewport has been redrawn.
+     */
+    private void report(String message) {
+        if (viewport == null) {
+            output.println(message);
+        } else {
+            messages.add(message);
         }
-        return renderRow(-1, values);
     }
 
-    private int maxWidth(int column) {
-        int max = 0;
-        for (int row = 0; row < view.getRows(); row++) {
-            int width = view.valueAt(row, column).getContent().length();
-            if (width > max) {
-                max = width;
-            }
+    private void columnHeaders(StringBuilder line, int columns) {
+        String[] values = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            values[column] = String.valueOf(Character.valueOf((char) (column + 65)));
         }
-        return max;
+        renderRow(line, -1, values);
     }
 
-    private String renderRow(int row, String[] values) {
-        StringJoiner renderedRow = new StringJoiner(" | ");
+    private void renderRow(StringBuilder line, int row, String[] values) {
         String rowHeader = row == -1 ? "" : "" + (row + 1);
         int headerPadding = (view.getRows() / 10) - rowHeader.length();
-        renderedRow.add(rowHeader + " ".repeat(headerPadding));
+        line.append(rowHeader);
+        pad(line, headerPadding);
         for (int column = 0; column < view.getColumns(); column++) {
-            int maxWidth = maxWidth(column);
             String cellValue = values[column];
-            int padding = maxWidth - cellValue.length();
-            renderedRow.add(cellValue + " ".repeat(padding));
+            line.append(" | ").append(cellValue);
+            pad(line, widths.width(column) - cellValue.length());
         }
-        renderedRow.add("");
-        return renderedRow.toString();
+        line.append(" | ");
     }
 
-    public String renderSheet() {
-        StringJoiner rendered = new StringJoiner("\n");
-        rendered.add(columnHeaders(view.getColumns()));
+    private static void pad(StringBuilder line, int padding) {
+        if (padding > 0) {
+            line.append(" ".repeat(padding));
+        }
+    }
+
+    /**
+     * Write the sheet to the given output one row at a time,
+     * without buffering the whole rendering.
+     * Each row is built in memory and written with a single append,
+     * as every write to a terminal stream may flush it.
+     */
+    private void renderSheet(Appendable out) throws IOException {
+        ValueBatchEvent event = new ValueBatchEvent();
+        event.begin();
+        if (!widths.isIncremental()) {
+            widths.rebuild();
+        }
+        StringBuilder line = new StringBuilder();
+        columnHeaders(line, view.getColumns());
+        out.append(line);
+        String[] values = new String[view.getColumns()];
         for (int row = 0; row < view.getRows(); row++) {
-            String[] values = new String[view.getColumns()];
             for (int column = 0; column < view.getColumns(); column++) {
                 values[column] = view.valueAt(row, column).getContent();
             }
-            rendered.add(renderRow(row, values));
+            line.setLength(0);
+            line.append('\n');
+            renderRow(line, row, values);
+            out.append(line);
+        }
+        event.report("render", 0, 0, view.getRows(), view.getColumns());
+    }
+
+    public String renderSheet() {
+        StringBuilder rendered = new StringBuilder();
+        try {
+            renderSheet(rendered);
+        } catch (IOException e) {
+            // Unreachable: a StringBuilder never throws.
         }
         return rendered.toString();
     }
@@ -98,14 +164,14 @@ public class TextUI extends UI {
                 Optional<Integer> maybeRow = readRow(reference);
                 Optional<Integer> maybeColumn = readColumn(reference);
                 if (maybeRow.isEmpty() || maybeColumn.isEmpty()) {
-                    output.println("Invalid reference");
+                    report("Invalid reference");
                     return false;
                 }
                 String formula = view.formulaAt(
                         maybeRow.get() - 1,
                         maybeColumn.get() - 1
                 ).getContent();
-                output.println(formula);
+                report(formula);
             }
             case "update", "u" -> {
                 output.print("reference: ");
@@ -113,7 +179,7 @@ public class TextUI extends UI {
                 Optional<Integer> maybeRow = readRow(reference);
                 Optional<Integer> maybeColumn = readColumn(reference);
                 if (maybeRow.isEmpty() || maybeColumn.isEmpty()) {
-                    output.println("Invalid reference");
+                    report("Invalid reference");
                     return false;
                 }
                 output.print("value: ");
@@ -122,21 +188,192 @@ public class TextUI extends UI {
                         maybeRow.get()- 1,
                         maybeColumn.get() - 1, value);
                 if (!response.isSuccess()) {
-                    output.println("Error: " + response.getMessage());
+                    report("Error: " + response.getMessage());
                 }
             }
+            case "goto", "g" -> {
+                if (viewport == null) {
+                    report("Unknown action");
+                    return false;
+                }
+                output.print("reference: ");
+                String reference = input.nextLine();
+                Optional<Integer> maybeRow = readRow(reference);
+                Optional<Integer> maybeColumn = readColumn(reference);
+                if (maybeRow.isEmpty() || maybeColumn.isEmpty()) {
+                    report("Invalid reference");
+                    return false;
+                }
+                viewport.scrollTo(maybeRow.get() - 1, maybeColumn.get() - 1);
+            }
+            case "next", "n", "previous", "p" -> {
+                if (viewport == null) {
+                    report("Unknown action");
+                    return false;
+                }
+                viewport.scrollPages(action.startsWith("n") ? 1 : -1);
+            }
             case "quit", "q" -> {
                 return true;
             }
             default ->
-                output.println("Unknown action");
+                report("Unknown action");
         }
         return false;
     }
 
+    /**
+     * Run a script of commands without rendering the sheet, printing only the requested results.
+     * Each line of the script is a command followed by a reference and, for updates, a value:
+     * <ul>
+     *     <li>"u A3 A1 + A2" or "update A3 A1 + A2" replaces the formula of a cell;</li>
+     *     <li>"v A3" or "view A3" prints the formula of a cell;</li>
+     *     <li>"s A3" or "show A3" prints the value of a cell;</li>
+     *     <li>"q" or "quit" stops the script.</li>
+     * </ul>
+     * Blank lines and lines starting with '#' are ignored.
+     * If the updater is a {@link BatchUpdate}, consecutive updates are staged and
+     * recalculated together before the next command that reads the sheet.
+     * As with {@link SheetUpdate#update(int, int, String)}, a staged cell that evaluates
+     * to an error, such as a circular reference, is rolled back to the formula it had
+     * before the staged updates, and the cells staged after it are evaluated without it.
+     * Unlike interactive updates, staged updates are evaluated together,
+     * so an update may use a cell that is only updated by a later line before the next read.
+     * Failed commands print "Error: line [n]: [message]".
+     * @param script The commands to run, one per line.
+     * @throws IOException If the script cannot be read.
+     */
+    public void runScript(BufferedReader script) throws IOException {
+        BatchUpdate batch = updater instanceof BatchUpdate b ? b : null;
+        Map<Long, Staged> staged = new LinkedHashMap<>();
+        StringBuilder results = new StringBuilder();
+        int lineNumber = 0;
+
+        String line;
+        while ((line = script.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            int split = line.indexOf(' ');
+            String command = split < 0 ? line : line.substring(0, split);
+            String rest = split < 0 ? "" : line.substring(split + 1).strip();
+            if (command.equals("quit") || command.equals("q")) {
+                break;
+            }
+
+            split = rest.indexOf(' ');
+            String reference = split < 0 ? rest : rest.substring(0, split);
+            String value = split < 0 ? "" : rest.substring(split + 1);
+            Optional<Integer> maybeRow = reference.isEmpty() ? Optional.empty() : readRow(reference);
+            Optional<Integer> maybeColumn = reference.isEmpty() ? Optional.empty() : readColumn(reference);
+            if (maybeRow.isEmpty() || maybeColumn.isEmpty()
+                    || maybeRow.get() < 1 || maybeRow.get() > view.getRows()
+                    || maybeColumn.get() < 1 || maybeColumn.get() > view.getColumns()) {
+                results.append("Error: line ").append(lineNumber).append(": Invalid reference\n");
+                continue;
+            }
+            int row = maybeRow.get() - 1;
+            int column = maybeColumn.get() - 1;
+
+            switch (command) {
+                case "update", "u" -> {
+                    long key = (long) row * view.getColumns() + column;
+                    Staged previous = staged.get(key);
+                    String original = batch == null ? null
+                            : previous != null ? previous.original()
+                            : view.formulaAt(row, column).getContent();
+                    UpdateResponse response = batch != null
+                            ? batch.stage(row, column, value)
+                            : updater.update(row, column, value);
+                    if (batch != null && response.isSuccess()) {
+                        staged.remove(key);
+                        staged.put(key, new Staged(lineNumber, original));
+                    }
+                    if (!response.isSuccess()) {
+                        results.append("Error: line ").append(lineNumber).append(": ")
+                                .append(response.getMessage()).append('\n');
+                    }
+                }
+                case "view", "v", "show", "s" -> {
+                    if (!staged.isEmpty()) {
+                        commit(batch, staged, results);
+                    }
+                    ViewElement element = command.startsWith("v")
+                            ? view.formulaAt(row, column)
+                            : view.valueAt(row, column);
+                    results.append(element.getContent()).append('\n');
+                }
+                default -> results.append("Error: line ").append(lineNumber)
+                        .append(": Unknown action\n");
+            }
+
+            if (results.length() >= SCRIPT_BUFFER) {
+                output.print(results);
+                results.setLength(0);
+            }
+        }
+        if (!staged.isEmpty()) {
+            commit(batch, staged, results);
+        }
+        output.print(results);
+        output.flush();
+    }
+
+    /**
+     * Commit the staged updates of a script, then roll back the staged cell of the earliest
+     * line that evaluated to an error and commit again, until no staged cell holds an error.
+     * A later cell may only hold an error because it uses the rolled back cell,
+     * so it is evaluated again before deciding whether it fails too.
+     * Rolled back cells are reported in the order of the lines that staged them.
+     */
+    private void commit(BatchUpdate batch, Map<Long, Staged> staged, StringBuilder results) {
+        batch.commit();
+        Map<Integer, String> failures = new TreeMap<>();
+        boolean rolledBack = true;
+        while (rolledBack) {
+            rolledBack = false;
+            // Staged cells are ordered by the line that last staged them.
+            Iterator<Map.Entry<Long, Staged>> cells = staged.entrySet().iterator();
+            while (cells.hasNext() && !rolledBack) {
+                Map.Entry<Long, Staged> entry = cells.next();
+                int row = (int) (entry.getKey() / view.getColumns());
+                int column = (int) (entry.getKey() % view.getColumns());
+                ErrorValue error = ErrorValue.ofCode(view.valueAt(row, column).getContent());
+                if (error != null) {
+                    batch.stage(row, column, entry.getValue().original());
+                    batch.commit();
+                    failures.put(entry.getValue().line(), error.getMessage());
+                    cells.remove();
+                    rolledBack = true;
+                }
+            }
+        }
+        for (Map.Entry<Integer, String> failure : failures.entrySet()) {
+            results.append("Error: line ").append(failure.getKey()).append(": ")
+                    .append(failure.getValue()).append('\n');
+        }
+        staged.clear();
+    }
+
     public void render() {
         while (true) {
-            output.println(renderSheet());
+            if (viewport != null) {
+                viewport.draw(output);
+                for (String message : messages) {
+                    output.println(message);
+                }
+                messages.clear();
+            } else {
+                try {
+                    renderSheet(output);
+                } catch (IOException e) {
+                    // Unreachable: a PrintStream never throws.
+                }
+                output.println();
+            }
             output.print("action: ");
             String action = input.nextLine();
             if (handleAction(action)) {
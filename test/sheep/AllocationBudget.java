@@ -0,0 +1,60 @@
+package sheep;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Measures the bytes allocated per operation by the current thread
+ * and fails when an operation exceeds its budget.
+ * <p>
+ * Each operation is first run enough times for the JIT to compile it,
+ * so that allocations removed by escape analysis are not counted.
+ */
+public class AllocationBudget {
+    /**
+     * An operation whose allocations are measured.
+     */
+    public interface Operation {
+        Object run() throws Exception;
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final int WARMUP = 20_000;
+    private static final int MEASURED = 10_000;
+
+    private volatile Object sink;
+
+    /**
+     * Measure the mean bytes allocated per call of the operation.
+     * @param operation The operation to measure.
+     * @return The mean bytes allocated per call.
+     * @throws Exception If the operation fails.
+     */
+    public double measure(Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            sink = operation.run();
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED; i++) {
+            sink = operation.run();
+        }
+        return (double) (THREADS.getCurrentThreadAllocatedBytes() - before) / MEASURED;
+    }
+
+    /**
+     * Fail if the operation allocates more than its budget per call.
+     * @param name The name of the operation, used in the failure report.
+     * @param budget The maximum number of bytes the operation may allocate per call.
+     * @param operation The operation to measure.
+     * @throws Exception If the operation fails.
+     */
+    public void check(String name, long budget, Operation operation) throws Exception {
+        double allocated = measure(operation);
+        if (allocated > budget) {
+            fail(String.format("%s allocated %.1f B/op, over its budget of %d B/op by %.1f B/op (%+.0f%%)",
+                    name, allocated, budget, allocated - budget, 100 * (allocated - budget) / budget));
+        }
+    }
+}
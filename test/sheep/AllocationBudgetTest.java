@@ -0,0 +1,86 @@
+package sheep;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.expression.Expression;
+import sheep.expression.arithmetic.Arithmetic;
+import sheep.expression.basic.Constant;
+import sheep.expression.basic.Reference;
+import sheep.parsing.Parser;
+import sheep.parsing.SimpleParser;
+import sheep.sheets.CellLocation;
+import sheep.sheets.Sheet;
+import sheep.sheets.SheetBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Allocation budgets for the evaluation hot path.
+ * A failure means a change has introduced garbage on a path that is run for every cell;
+ * raise a budget only when the extra allocation is intended.
+ * Each budget is about 1.3 times the allocation measured when it was set, noted beside it,
+ * so update the note along with the budget.
+ */
+public class AllocationBudgetTest {
+    private static final int CHAIN = 100;
+
+    private final AllocationBudget budget = new AllocationBudget();
+    private Parser parser;
+    private Sheet sheet;
+    private int counter;
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        parser = new SimpleParser(factory);
+        sheet = new SheetBuilder(parser, factory.createEmpty()).empty(CHAIN, 2);
+        sheet.update(0, 0, "1");
+        for (int row = 1; row < CHAIN; row++) {
+            sheet.update(row, 0, "A" + (row - 1) + " + 1");
+        }
+    }
+
+    @Test
+    public void testExpressionValue() throws Exception {
+        Map<String, Expression> state = new HashMap<>();
+        state.put("A0", new Constant(3));
+        Expression expression = Arithmetic.plus(new Expression[]{new Constant(1), new Reference("A0")});
+        // Measured 56 B/op.
+        budget.check("Expression.value(Map)", 72, () -> expression.value(state));
+    }
+
+    @Test
+    public void testValueAtLocation() throws Exception {
+        CellLocation location = new CellLocation(CHAIN / 2, 0);
+        // Measured 0 B/op, the budget allows for a single small object.
+        budget.check("Sheet.valueAt(CellLocation)", 16, () -> sheet.valueAt(location));
+    }
+
+    @Test
+    public void testValueAtRender() throws Exception {
+        // Measured 96 B/op.
+        budget.check("Sheet.valueAt(int, int)", 128, () -> sheet.valueAt(CHAIN / 2, 0));
+    }
+
+    @Test
+    public void testUpdateSingleCell() throws Exception {
+        // Measured 1,320 B/op.
+        budget.check("Sheet.update of an unused cell", 1_700,
+                () -> sheet.update(CHAIN - 1, 1, "" + (counter++ & 1)));
+    }
+
+    @Test
+    public void testUpdateChain() throws Exception {
+        // Measured 34,432 B/op.
+        budget.check("Sheet.update of a " + CHAIN + " cell chain", 44_000,
+                () -> sheet.update(0, 0, "" + (counter++ & 1)));
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        // Measured 640-680 B/op.
+        budget.check("Parser.parse of a short formula", 880, () -> parser.parse("A1 + 2"));
+    }
+}
@@ -0,0 +1,44 @@
+package sheep.expression.basic;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import sheep.expression.Expression;
+import sheep.expression.TypeError;
+import sheep.expression.arithmetic.Arithmetic;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ErrorValueTest {
+    private final Map<String, Expression> state = new HashMap<>();
+
+    @Test
+    public void testDivideByZero() throws TypeError {
+        Expression divide = Arithmetic.divide(new Expression[]{new Constant(1), new Constant(0)});
+        assertSame(ErrorValue.DIVIDE_BY_ZERO, divide.value(state));
+    }
+
+    @Test
+    public void testNonNumberArgument() throws TypeError {
+        Expression plus = Arithmetic.plus(new Expression[]{new Constant(1), new Nothing()});
+        assertSame(ErrorValue.VALUE, plus.value(state));
+    }
+
+    @Test
+    public void testPropagates() throws TypeError {
+        state.put("A0", ErrorValue.CIRCULAR);
+        Expression plus = Arithmetic.plus(new Expression[]{new Constant(1), new Reference("A0")});
+        Expression times = Arithmetic.times(new Expression[]{plus, new Constant(2)});
+        assertSame(ErrorValue.CIRCULAR, times.value(state));
+    }
+
+    @Test
+    public void testRender() {
+        assertEquals("#DIV/0!", ErrorValue.DIVIDE_BY_ZERO.render());
+    }
+
+    @Test(expected = TypeError.class)
+    public void testValueThrows() throws TypeError {
+        ErrorValue.VALUE.value();
+    }
+}
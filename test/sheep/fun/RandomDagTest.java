@@ -0,0 +1,47 @@
+package sheep.fun;
+
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+import sheep.sheets.Sheet;
+import sheep.sheets.SheetBuilder;
+
+import static org.junit.Assert.*;
+
+public class RandomDagTest {
+    private static final int ROWS = 40;
+    private static final int COLUMNS = 5;
+
+    private Sheet draw(long seed) throws FunException {
+        CoreFactory factory = new CoreFactory();
+        Sheet sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(ROWS, COLUMNS);
+        new RandomDag(ROWS, COLUMNS, 4, 3, seed).draw(sheet);
+        return sheet;
+    }
+
+    private static boolean sameFormulas(Sheet first, Sheet second) {
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                if (!first.formulaAt(row, column).getContent()
+                        .equals(second.formulaAt(row, column).getContent())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testSameSeed() throws FunException {
+        Sheet first = draw(7);
+        Sheet second = draw(7);
+        assertTrue(sameFormulas(first, second));
+        assertEquals(first.valueAt(ROWS - 1, COLUMNS - 1).getContent(),
+                second.valueAt(ROWS - 1, COLUMNS - 1).getContent());
+    }
+
+    @Test
+    public void testDifferentSeed() throws FunException {
+        assertFalse(sameFormulas(draw(7), draw(8)));
+    }
+}
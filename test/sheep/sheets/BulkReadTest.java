@@ -0,0 +1,71 @@
+package sheep.sheets;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.core.SheetView;
+import sheep.core.ViewElement;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+
+import static org.junit.Assert.*;
+
+public class BulkReadTest {
+    private Sheet sheet;
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(4, 3);
+        sheet.update(1, 0, "7");
+        sheet.update(1, 1, "0 - A1 * 2");
+        sheet.stage(2, 1, "1 / 0");
+        sheet.commit();
+    }
+
+    private void assertRegion(SheetView view) {
+        long[] numbers = new long[6];
+        long[] valid = new long[]{-1};
+        assertEquals(2, view.readNumbers(1, 0, 2, 3, numbers, valid));
+        assertArrayEquals(new long[]{7, -14, 0, 0, 0, 0}, numbers);
+        assertEquals(0b11, valid[0]);
+
+        String[] text = new String[6];
+        view.readText(1, 0, 2, 3, text);
+        assertArrayEquals(new String[]{"7", "-14", "", "", "#DIV/0!", ""}, text);
+    }
+
+    @Test
+    public void testSheet() {
+        assertRegion(sheet);
+    }
+
+    @Test
+    public void testDefault() {
+        assertRegion(new SheetView() {
+            @Override
+            public int getRows() {
+                return sheet.getRows();
+            }
+
+            @Override
+            public int getColumns() {
+                return sheet.getColumns();
+            }
+
+            @Override
+            public ViewElement valueAt(int row, int column) {
+                return sheet.valueAt(row, column);
+            }
+
+            @Override
+            public ViewElement formulaAt(int row, int column) {
+                return sheet.formulaAt(row, column);
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutsideSheet() {
+        sheet.readText(3, 0, 2, 3, new String[6]);
+    }
+}
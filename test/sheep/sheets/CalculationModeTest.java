@@ -0,0 +1,44 @@
+package sheep.sheets;
+
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+
+import static org.junit.Assert.*;
+
+public class CalculationModeTest {
+    private final CoreFactory factory = new CoreFactory();
+    private final SheetBuilder builder = new SheetBuilder(new SimpleParser(factory), factory.createEmpty());
+
+    @Test
+    public void testManual() {
+        Sheet sheet = builder.calculationMode(CalculationMode.MANUAL).empty(2, 2);
+        assertTrue(sheet.update(0, 0, "1").isSuccess());
+        assertTrue(sheet.update(0, 1, "A0 + 1").isSuccess());
+        assertEquals("", sheet.valueAt(0, 1).getContent());
+        assertEquals(2, sheet.getPendingCells());
+
+        sheet.recalculate();
+        assertEquals("2", sheet.valueAt(0, 1).getContent());
+        assertEquals(0, sheet.getPendingCells());
+    }
+
+    @Test
+    public void testDeferredEdits() {
+        Sheet sheet = builder.calculationMode(CalculationMode.DEFERRED).deferral(3, null).empty(2, 2);
+        sheet.update(0, 0, "1");
+        sheet.update(0, 1, "A0 + 1");
+        assertEquals("", sheet.valueAt(0, 1).getContent());
+        sheet.update(1, 0, "B0 + 1");
+        assertEquals("3", sheet.valueAt(1, 0).getContent());
+    }
+
+    @Test
+    public void testSwitchToAutomatic() {
+        Sheet sheet = builder.calculationMode(CalculationMode.MANUAL).empty(2, 2);
+        sheet.update(0, 0, "4");
+        sheet.setCalculationMode(CalculationMode.AUTOMATIC);
+        assertEquals("4", sheet.valueAt(0, 0).getContent());
+        assertFalse(sheet.update(0, 1, "A1 + 1").isSuccess());
+    }
+}
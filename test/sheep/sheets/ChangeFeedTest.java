@@ -0,0 +1,85 @@
+package sheep.sheets;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.core.CellChange;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ChangeFeedTest {
+    private Sheet sheet;
+    private final BlockingQueue<List<CellChange>> batches = new LinkedBlockingQueue<>();
+    private Flow.Subscription subscription;
+
+    private final Flow.Subscriber<List<CellChange>> subscriber = new Flow.Subscriber<>() {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            ChangeFeedTest.this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(List<CellChange> item) {
+            batches.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    };
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(3, 3);
+        sheet.update(0, 0, "1");
+    }
+
+    @Test
+    public void testChangesWithDependants() throws InterruptedException {
+        sheet.update(0, 1, "A0 + 1");
+        sheet.getChangeFeed().subscribe(subscriber);
+        subscription.request(1);
+        sheet.update(0, 0, "5");
+
+        List<CellChange> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals(2, batch.size());
+        assertTrue(batch.contains(new CellChange(0, 0, "1", "5")));
+        assertTrue(batch.contains(new CellChange(0, 1, "2", "6")));
+    }
+
+    @Test
+    public void testMergesWithoutDemand() throws InterruptedException {
+        sheet.getChangeFeed().subscribe(subscriber, new Region(0, 0, 1, 1));
+        sheet.update(0, 0, "2");
+        sheet.update(0, 0, "3");
+        sheet.update(1, 1, "4");
+        sheet.update(0, 1, "1");
+        assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+
+        subscription.request(2);
+        assertEquals(List.of(new CellChange(0, 0, "1", "3")), batches.poll(5, TimeUnit.SECONDS));
+        assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRollbackOmitted() throws InterruptedException {
+        sheet.getChangeFeed().subscribe(subscriber);
+        subscription.request(1);
+        assertFalse(sheet.update(0, 0, "A1 + 1").isSuccess());
+        sheet.update(2, 2, "7");
+        assertEquals(List.of(new CellChange(2, 2, "", "7")), batches.poll(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,74 @@
+package sheep.sheets;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.parsing.Parser;
+import sheep.parsing.SimpleParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class CsvExporterTest {
+    private SimpleParser simple;
+    private Sheet sheet;
+
+    @Before
+    public void setUp() {
+        // A leading quote marks text, which the simple parser cannot produce.
+        CoreFactory factory = new CoreFactory();
+        simple = new SimpleParser(factory);
+        Parser parser = input -> input.startsWith("'")
+                ? factory.createReference(input.substring(1))
+                : simple.parse(input);
+        sheet = new SheetBuilder(parser, factory.createEmpty()).empty(3, 4);
+    }
+
+    private String export(CsvExporter exporter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.writeValues(sheet, Channels.newChannel(out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testNumbers() throws IOException {
+        sheet.update(0, 0, "1");
+        sheet.update(0, 1, "-25");
+        sheet.update(0, 2, "A0 + B0");
+        sheet.update(0, 3, "9223372036854775807");
+        assertEquals("1,-25,-24,9223372036854775807\n,,,\n,,,\n", export(new CsvExporter()));
+    }
+
+    @Test
+    public void testMixedRow() throws IOException {
+        sheet.update(1, 0, "7");
+        sheet.update(1, 1, "'plain");
+        sheet.update(1, 3, "A1 * 2");
+        assertEquals(",,,\n7,plain,,14\n,,,\n", export(new CsvExporter()));
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        sheet.update(0, 0, "1");
+        sheet.insert(new CellLocation(2, 1), simple.parse("A0 + C0"));
+        sheet.insert(new CellLocation(2, 3), simple.parse("A0 / 0"));
+        sheet.recalculate();
+        assertEquals("1,,,\n,,,\n,#VALUE!,,#DIV/0!\n", export(new CsvExporter()));
+    }
+
+    @Test
+    public void testQuoting() throws IOException {
+        sheet.update(0, 0, "'say \"hi\", then");
+        sheet.update(0, 1, "'two\nlines");
+        sheet.update(0, 2, "'tab\there");
+        sheet.update(0, 3, "'héllo");
+        assertEquals("\"say \"\"hi\"\", then\",\"two\nlines\",tab\there,héllo\n,,,\n,,,\n",
+                export(new CsvExporter()));
+        assertEquals("\"say \"\"hi\"\", then\"\t\"two\nlines\"\t\"tab\there\"\théllo\n\t\t\t\n\t\t\t\n",
+                export(new CsvExporter('\t')));
+    }
+}
@@ -0,0 +1,123 @@
+package sheep.sheets;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.core.UpdateResponse;
+import sheep.expression.CoreFactory;
+import sheep.parsing.Parser;
+import sheep.parsing.SimpleParser;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.*;
+
+public class CsvImporterTest {
+    private Sheet sheet;
+    private CsvImporter importer;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        CoreFactory factory = new CoreFactory();
+        SimpleParser parser = new SimpleParser(factory);
+        sheet = new SheetBuilder(parser, factory.createEmpty()).empty(10, 3);
+        importer = new CsvImporter(parser, ',', 2);
+        file = Files.createTempFile("import", ".csv");
+        file.toFile().deleteOnExit();
+    }
+
+    @Test
+    public void testLoadEvaluatesFormulas() throws IOException {
+        Files.writeString(file, "1,A0 + 1\r\n2,\"B0 * 2\"\n");
+        UpdateResponse response = importer.load(sheet, file);
+        assertTrue(response.isSuccess());
+        assertEquals("2", sheet.valueAt(0, 1).getContent());
+        assertEquals("4", sheet.valueAt(1, 1).getContent());
+        assertEquals("B0 * 2", sheet.formulaAt(1, 1).getContent());
+    }
+
+    @Test
+    public void testLoadIgnoresOutOfRange() throws IOException {
+        StringBuilder contents = new StringBuilder();
+        for (int row = 0; row < 20; row++) {
+            contents.append(row).append(",1,2,3\n");
+        }
+        Files.writeString(file, contents);
+        assertTrue(importer.load(sheet, file).isSuccess());
+        assertEquals("9", sheet.valueAt(9, 0).getContent());
+        assertEquals("2", sheet.valueAt(9, 2).getContent());
+    }
+
+    @Test
+    public void testLoadReportsUnparsable() throws IOException {
+        Files.writeString(file, "1,oops!,3");
+        UpdateResponse response = importer.load(sheet, file);
+        assertFalse(response.isSuccess());
+        assertEquals("Unable to parse: oops!", response.getMessage());
+        assertEquals("3", sheet.valueAt(0, 2).getContent());
+    }
+
+    @Test
+    public void testQuotedLineBreak() throws IOException {
+        CoreFactory factory = new CoreFactory();
+        Parser parser = factory::createReference;
+        Sheet text = new SheetBuilder(parser, factory.createEmpty()).empty(3, 2);
+        Files.writeString(file, "a,\"two\nlines\"\r\nb,\"c\r\nd\"\ne,f\n");
+        assertTrue(new CsvImporter(parser, ',', 2).load(text, file).isSuccess());
+        assertEquals("two\nlines", text.formulaAt(0, 1).getContent());
+        assertEquals("b", text.formulaAt(1, 0).getContent());
+        assertEquals("c\r\nd", text.formulaAt(1, 1).getContent());
+        assertEquals("e", text.formulaAt(2, 0).getContent());
+        assertEquals("f", text.formulaAt(2, 1).getContent());
+    }
+
+    @Test
+    public void testQuotedLineBreakAcrossChunks() throws IOException {
+        CoreFactory factory = new CoreFactory();
+        Parser parser = factory::createReference;
+        Sheet text = new SheetBuilder(parser, factory.createEmpty()).empty(3, 2);
+        // Place the quoted line break at the end of the first megabyte read from the file.
+        String padding = "x".repeat((1 << 20) - 4);
+        Files.writeString(file, padding + ",\"\nz\"\ny,w\n");
+        assertTrue(new CsvImporter(parser, ',', 2).load(text, file).isSuccess());
+        assertEquals(padding, text.formulaAt(0, 0).getContent());
+        assertEquals("\nz", text.formulaAt(0, 1).getContent());
+        assertEquals("y", text.formulaAt(1, 0).getContent());
+        assertEquals("w", text.formulaAt(1, 1).getContent());
+    }
+
+    @Test
+    public void testExportedFormulasReimport() throws IOException {
+        // Formulas of the simple parser never hold a comma or quote, so accept those as text.
+        CoreFactory factory = new CoreFactory();
+        SimpleParser simple = new SimpleParser(factory);
+        Parser parser = input -> input.contains(",") || input.contains("\"")
+                ? factory.createReference(input)
+                : simple.parse(input);
+        SheetBuilder builder = new SheetBuilder(parser, factory.createEmpty());
+        Sheet original = builder.empty(3, 3);
+        original.update(0, 0, "1");
+        original.update(0, 1, "A0 + 1");
+        original.update(1, 0, "-7");
+        original.update(1, 2, "say \"hi\", then");
+        original.update(2, 1, "a,b");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            new CsvExporter().writeFormulas(original, channel);
+        }
+        Sheet loaded = builder.empty(3, 3);
+        assertTrue(new CsvImporter(parser, ',', 2).load(loaded, file).isSuccess());
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                assertEquals(original.formulaAt(row, column).getContent(),
+                        loaded.formulaAt(row, column).getContent());
+            }
+        }
+        assertEquals("2", loaded.valueAt(0, 1).getContent());
+    }
+}
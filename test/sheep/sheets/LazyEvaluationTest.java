@@ -0,0 +1,93 @@
+package sheep.sheets;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+
+import static org.junit.Assert.*;
+
+public class LazyEvaluationTest {
+    private Sheet sheet;
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(6, 3);
+        sheet.update(0, 0, "2");
+        sheet.update(5, 1, "1");
+        sheet.update(0, 1, "A0 + B5");
+        sheet.update(1, 0, "A0 * 3");
+        sheet.setLazy(true);
+    }
+
+    @Test
+    public void testDependentsWaitUntilRead() {
+        sheet.setCollectingStatistics(true);
+        assertEquals(1, sheet.update(0, 0, "3").getStatistics().orElseThrow().getRecalculatedCells());
+        sheet.getMetrics().reset();
+
+        assertEquals("4", sheet.valueAt(0, 1).getContent());
+        assertEquals(1, sheet.getMetrics().getCacheMisses());
+        assertEquals(1, sheet.getMetrics().getRecalculatedCellsMax());
+        assertEquals("4", sheet.valueAt(0, 1).getContent());
+        assertEquals(1, sheet.getMetrics().getCacheHits());
+        assertEquals("9", sheet.valueAt(1, 0).getContent());
+        assertEquals(2, sheet.getMetrics().getCacheMisses());
+    }
+
+    @Test
+    public void testReadEvaluatesOnlyItsCone() {
+        sheet.update(2, 0, "A1 + 1");
+        sheet.update(3, 0, "A2 + 1");
+        sheet.update(0, 0, "3");
+        sheet.getMetrics().reset();
+
+        assertEquals("10", sheet.valueAt(2, 0).getContent());
+        assertEquals(1, sheet.getMetrics().getCacheMisses());
+        assertEquals(2, sheet.getMetrics().getRecalculatedCellsMax());
+        assertEquals("9", sheet.valueAt(1, 0).getContent());
+        assertEquals(1, sheet.getMetrics().getCacheHits());
+        assertEquals("4", sheet.valueAt(0, 1).getContent());
+        assertEquals("11", sheet.valueAt(3, 0).getContent());
+        assertEquals(3, sheet.getMetrics().getCacheMisses());
+    }
+
+    @Test
+    public void testViewportEvaluatedEagerly() {
+        sheet.addViewport(new Region(0, 0, 1, 3));
+        sheet.update(0, 0, "3");
+        sheet.getMetrics().reset();
+
+        assertEquals("4", sheet.valueAt(0, 1).getContent());
+        assertEquals(1, sheet.getMetrics().getCacheHits());
+        assertEquals(0, sheet.getMetrics().getCacheMisses());
+        assertEquals("9", sheet.valueAt(1, 0).getContent());
+        assertEquals(1, sheet.getMetrics().getCacheMisses());
+    }
+
+    @Test
+    public void testRejectedCycle() {
+        assertFalse(sheet.update(5, 1, "B0").isSuccess());
+        assertEquals("1", sheet.formulaAt(5, 1).getContent());
+        assertEquals("1", sheet.valueAt(5, 1).getContent());
+        assertEquals("3", sheet.valueAt(0, 1).getContent());
+
+        sheet.setLazy(false);
+        assertEquals("3", sheet.valueAt(0, 1).getContent());
+    }
+
+    @Test
+    public void testRejectedTypeError() {
+        sheet.update(0, 0, "4");
+        assertFalse(sheet.update(2, 2, "A1 / 0").isSuccess());
+        assertEquals("", sheet.formulaAt(2, 2).getContent());
+        assertEquals("", sheet.valueAt(2, 2).getContent());
+        assertEquals("12", sheet.valueAt(1, 0).getContent());
+
+        sheet.update(0, 0, "5");
+        sheet.setLazy(false);
+        assertEquals("15", sheet.valueAt(1, 0).getContent());
+        assertEquals("", sheet.valueAt(2, 2).getContent());
+    }
+}
@@ -0,0 +1,124 @@
+package sheep.sheets;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class ProfilerTest {
+    private Sheet sheet;
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(70, 2);
+        sheet.update(0, 0, "1");
+        for (int row = 1; row < 70; row++) {
+            sheet.update(row, 0, "A" + (row - 1) + " + 1");
+        }
+    }
+
+    /**
+     * A profiler of the first cells of the chain, each evaluated once and taking
+     * one millisecond longer than the cell it uses.
+     */
+    private Profiler recorded(int cells) {
+        Profiler profiler = new Profiler(sheet);
+        for (int row = 0; row < cells; row++) {
+            CellLocation location = new CellLocation(row, 0);
+            profiler.record(location, sheet.formulaAt(location), (row + 1) * 1_000_000L);
+        }
+        return profiler;
+    }
+
+    @Test
+    public void testRecordsEvaluations() {
+        sheet.setProfiling(true);
+        sheet.update(67, 0, "A66 * 2");
+        sheet.update(0, 0, "2");
+        sheet.setProfiling(false);
+        sheet.update(0, 0, "3");
+
+        List<Profiler.Entry> cells = sheet.getProfiler().hotCells(100);
+        assertEquals(70, cells.size());
+        for (Profiler.Entry cell : cells) {
+            // The first update evaluates A67 and the cells that use it.
+            assertEquals(Set.of("A67", "A68", "A69").contains(cell.name()) ? 2 : 1, cell.count());
+            assertTrue(cell.nanos() >= 0);
+        }
+        assertEquals(5, sheet.getProfiler().hotCells(5).size());
+
+        long total = 0;
+        for (Profiler.Entry type : sheet.getProfiler().hotTypes()) {
+            total += type.nanos();
+            switch (type.name()) {
+                case "Constant" -> assertEquals(1, type.count());
+                case "Plus" -> assertEquals(70, type.count());
+                case "Times" -> assertEquals(2, type.count());
+                default -> fail("Unexpected type " + type.name());
+            }
+        }
+        assertTrue(total > 0);
+
+        sheet.getProfiler().reset();
+        assertTrue(sheet.getProfiler().hotCells(5).isEmpty());
+        assertTrue(sheet.getProfiler().hotTypes().isEmpty());
+    }
+
+    @Test
+    public void testHotCellsRanked() {
+        List<Profiler.Entry> cells = recorded(3).hotCells(2);
+        assertEquals(List.of(new Profiler.Entry("A2", 1, 3_000_000L),
+                new Profiler.Entry("A1", 1, 2_000_000L)), cells);
+
+        List<Profiler.Entry> types = recorded(3).hotTypes();
+        assertEquals(List.of(new Profiler.Entry("Plus", 2, 5_000_000L),
+                new Profiler.Entry("Constant", 1, 1_000_000L)), types);
+    }
+
+    @Test
+    public void testReport() {
+        String[] lines = recorded(3).report(2).split(System.lineSeparator());
+        assertEquals(7, lines.length);
+        assertTrue(lines[0].startsWith("Cell"));
+        assertTrue(lines[0].endsWith("Formula"));
+        assertEquals(String.format("%-8s %12d %12.3f %10.3f  %s", "A2", 1, 3.0, 3000.0, "A1 + 1"), lines[1]);
+        assertEquals(String.format("%-8s %12d %12.3f %10.3f  %s", "A1", 1, 2.0, 2000.0, "A0 + 1"), lines[2]);
+        assertEquals("", lines[3]);
+        assertTrue(lines[4].startsWith("Type"));
+        assertEquals(String.format("%-8s %12d %12.3f %10.3f", "Plus", 2, 5.0, 2500.0), lines[5]);
+        assertEquals(String.format("%-8s %12d %12.3f %10.3f", "Constant", 1, 1.0, 1000.0), lines[6]);
+    }
+
+    @Test
+    public void testCollapsedStacks() throws IOException {
+        StringBuilder out = new StringBuilder();
+        recorded(3).writeCollapsedStacks(out);
+        Set<String> stacks = new TreeSet<>(Arrays.asList(out.toString().split("\n")));
+        assertEquals(Set.of("A0 1000000", "A0;A1 2000000", "A0;A1;A2 3000000"), stacks);
+    }
+
+    @Test
+    public void testCollapsedStacksTruncated() throws IOException {
+        StringBuilder out = new StringBuilder();
+        recorded(70).writeCollapsedStacks(out);
+        String deepest = null;
+        for (String stack : out.toString().split("\n")) {
+            if (stack.endsWith(" 70000000")) {
+                deepest = stack;
+            }
+        }
+        assertNotNull(deepest);
+        assertTrue(deepest.startsWith("...;A6;A7;"));
+        assertTrue(deepest.endsWith(";A68;A69 70000000"));
+        assertEquals(65, deepest.split(";").length);
+    }
+}
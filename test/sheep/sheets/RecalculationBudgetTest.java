@@ -0,0 +1,99 @@
+package sheep.sheets;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.core.UpdateResponse;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+
+import static org.junit.Assert.*;
+
+public class RecalculationBudgetTest {
+    private Sheet sheet;
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(50, 1);
+        sheet.update(0, 0, "1");
+        for (int row = 1; row < 50; row++) {
+            sheet.update(row, 0, "A" + (row - 1) + " + 1");
+        }
+    }
+
+    @Test
+    public void testRollback() {
+        sheet.setRecalculationBudget(new RecalculationBudget(null, 10,
+                RecalculationBudget.Overrun.ROLLBACK, null));
+        UpdateResponse response = sheet.update(0, 0, "5");
+        assertFalse(response.isSuccess());
+        assertEquals("1", sheet.formulaAt(0, 0).getContent());
+        assertEquals("1", sheet.valueAt(0, 0).getContent());
+        assertEquals("10", sheet.valueAt(9, 0).getContent());
+        assertEquals(0, sheet.getPendingCells());
+    }
+
+    @Test
+    public void testLeaveDirty() {
+        sheet.setRecalculationBudget(new RecalculationBudget(null, 10,
+                RecalculationBudget.Overrun.LEAVE_DIRTY, null));
+        UpdateResponse response = sheet.update(0, 0, "5");
+        assertTrue(response.isSuccess());
+        assertFalse(response.isComplete());
+        assertEquals(40, response.getPendingCells());
+        assertEquals("14", sheet.valueAt(9, 0).getContent());
+        assertEquals("50", sheet.valueAt(49, 0).getContent());
+
+        sheet.setRecalculationBudget(RecalculationBudget.UNLIMITED);
+        sheet.recalculate();
+        assertEquals(0, sheet.getPendingCells());
+        assertEquals("54", sheet.valueAt(49, 0).getContent());
+    }
+
+    @Test
+    public void testCancelled() {
+        CancellationToken token = new CancellationToken();
+        sheet.setRecalculationBudget(new RecalculationBudget(null, 0,
+                RecalculationBudget.Overrun.ROLLBACK, token));
+        token.cancel();
+        assertEquals("Recalculation cancelled", sheet.update(0, 0, "5").getMessage());
+        token.reset();
+        assertTrue(sheet.update(0, 0, "5").isSuccess());
+        assertEquals("54", sheet.valueAt(49, 0).getContent());
+    }
+
+    @Test
+    public void testViewportFirst() {
+        sheet.addViewport(new Region(45, 0, 5, 1));
+        sheet.setRecalculationBudget(new RecalculationBudget(null, 10,
+                RecalculationBudget.Overrun.LEAVE_DIRTY, null));
+        sheet.update(40, 0, "0");
+        assertEquals("0", sheet.valueAt(40, 0).getContent());
+        assertEquals("4", sheet.valueAt(44, 0).getContent());
+        assertEquals("9", sheet.valueAt(49, 0).getContent());
+    }
+
+    @Test
+    public void testReadFirst() {
+        CoreFactory factory = new CoreFactory();
+        Sheet columns = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(20, 2);
+        columns.update(0, 0, "1");
+        columns.update(0, 1, "1");
+        for (int row = 1; row < 20; row++) {
+            columns.update(row, 0, "A" + (row - 1) + " + 1");
+            columns.update(row, 1, "B" + (row - 1) + " + 1");
+        }
+        columns.setRecalculationBudget(new RecalculationBudget(null, 10,
+                RecalculationBudget.Overrun.LEAVE_DIRTY, null));
+        columns.stage(0, 0, "2");
+        columns.stage(0, 1, "2");
+        columns.commit();
+        columns.valueAt(19, 1);
+
+        columns.setRecalculationBudget(new RecalculationBudget(null, 25,
+                RecalculationBudget.Overrun.LEAVE_DIRTY, null));
+        columns.recalculate();
+        assertEquals("21", columns.valueAt(19, 1).getContent());
+        assertTrue(columns.getPendingCells() > 0);
+    }
+}
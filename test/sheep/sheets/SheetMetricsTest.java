@@ -0,0 +1,38 @@
+package sheep.sheets;
+
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class SheetMetricsTest {
+    private final CoreFactory factory = new CoreFactory();
+    private final SheetBuilder builder = new SheetBuilder(new SimpleParser(factory), factory.createEmpty());
+
+    @Test
+    public void testViewportSkipsFreshCells() {
+        Sheet sheet = builder.empty(4, 4);
+        sheet.update(0, 0, "1");
+        sheet.update(3, 3, "A0 + 1");
+        sheet.setLazy(true);
+        sheet.addViewport(new Region(0, 0, 2, 2));
+        sheet.getMetrics().reset();
+
+        sheet.update(0, 0, "2");
+        assertEquals(1.0, sheet.getMetrics().getRecalculatedCellsMean(), 0.0);
+    }
+
+    @Test
+    public void testRegisteredUntilDisposed() {
+        Sheet sheet = builder.registerMetrics(true).empty(2, 2);
+        ObjectName name = sheet.getMetrics().register();
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+        sheet.dispose();
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -0,0 +1,73 @@
+package sheep.sheets;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.core.UpdateResponse;
+import sheep.core.UpdateStatistics;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+
+import static org.junit.Assert.*;
+
+public class UpdateStatisticsTest {
+    private Sheet sheet;
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(4, 4);
+        sheet.update(0, 0, "1");
+        sheet.update(0, 1, "A0 + 1");
+        sheet.setCollectingStatistics(true);
+    }
+
+    @Test
+    public void testSuccessfulUpdate() {
+        UpdateResponse response = sheet.update(0, 0, "2");
+        assertTrue(response.isSuccess());
+        UpdateStatistics statistics = response.getStatistics().orElseThrow();
+        assertEquals(2, statistics.getRecalculatedCells());
+        assertEquals(2, statistics.getChangedCount());
+        assertEquals(0, statistics.getFirstChangedRow());
+        assertEquals(0, statistics.getFirstChangedColumn());
+        assertEquals(1, statistics.getLastChangedColumn());
+        assertTrue(statistics.getParseNanos() > 0);
+        assertTrue(statistics.getEvaluationNanos() > 0);
+    }
+
+    @Test
+    public void testConeDepth() {
+        sheet.update(1, 0, "A0 + 1");
+        sheet.update(2, 0, "A1 + 1");
+        sheet.update(3, 0, "A2 * 2");
+
+        UpdateStatistics statistics = sheet.update(0, 0, "2").getStatistics().orElseThrow();
+        assertEquals(3, statistics.getConeDepth());
+        assertEquals(5, statistics.getRecalculatedCells());
+        assertEquals(2, sheet.update(1, 0, "A0 - 1").getStatistics().orElseThrow().getConeDepth());
+        assertEquals(0, sheet.update(3, 0, "A2 * 3").getStatistics().orElseThrow().getConeDepth());
+        assertEquals(0, sheet.update(3, 3, "7").getStatistics().orElseThrow().getConeDepth());
+    }
+
+    @Test
+    public void testFailedParse() {
+        UpdateResponse response = sheet.update(0, 0, "oops!");
+        assertFalse(response.isSuccess());
+        assertTrue(response.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void testFailedEvaluation() {
+        UpdateResponse response = sheet.update(0, 0, "A1 / 0");
+        assertFalse(response.isSuccess());
+        assertTrue(response.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void testNotCollecting() {
+        sheet.setCollectingStatistics(false);
+        UpdateResponse response = sheet.update(0, 0, "2");
+        assertTrue(response.isSuccess());
+        assertTrue(response.getStatistics().isEmpty());
+    }
+}
@@ -0,0 +1,70 @@
+package sheep.sheets;
+
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.expression.basic.Constant;
+import sheep.expression.basic.Reference;
+import sheep.parsing.SimpleParser;
+
+import static org.junit.Assert.*;
+
+public class ValueStorageTest {
+    private Sheet sheet(ValueStorage storage, int rows, int columns) {
+        CoreFactory factory = new CoreFactory();
+        return new SheetBuilder(new SimpleParser(factory), factory.createEmpty())
+                .valueStorage(storage)
+                .empty(rows, columns);
+    }
+
+    @Test
+    public void testOffHeap() {
+        Sheet sheet = sheet(ValueStorage.OFF_HEAP, 3000, 2);
+        assertEquals(ValueStorage.OFF_HEAP, sheet.getValueStorage());
+        sheet.update(0, 0, "7");
+        sheet.update(2500, 0, "A0 * 1000");
+        sheet.update(2500, 1, "A2500 + 1");
+        assertEquals("7000", sheet.valueAt(2500, 0).getContent());
+        assertEquals("7001", sheet.valueAt(2500, 1).getContent());
+        assertEquals("", sheet.valueAt(1500, 1).getContent());
+
+        sheet.update(0, 0, "2");
+        long[] numbers = new long[2];
+        long[] valid = new long[1];
+        assertEquals(2, sheet.readNumbers(2500, 0, 1, 2, numbers, valid));
+        assertArrayEquals(new long[]{2000, 2001}, numbers);
+    }
+
+    @Test
+    public void testConstantDefault() {
+        CoreFactory factory = new CoreFactory();
+        Sheet sheet = new SheetBuilder(new SimpleParser(factory), new Constant(3))
+                .valueStorage(ValueStorage.OFF_HEAP)
+                .empty(2000, 2);
+        assertEquals("3", sheet.valueAt(1999, 1).getContent());
+        sheet.update(1999, 0, "B1999 + B1998");
+        assertEquals("6", sheet.valueAt(1999, 0).getContent());
+        assertEquals("3", sheet.valueAt(1998, 0).getContent());
+        sheet.update(1999, 0, "3");
+        assertEquals("3", sheet.formulaAt(1999, 0).getContent());
+    }
+
+    private void assertEmptyCell(ValueStorage storage) {
+        CoreFactory factory = new CoreFactory();
+        Sheet sheet = new SheetBuilder(new SimpleParser(factory), new Reference("Z99"))
+                .valueStorage(storage)
+                .empty(2, 2);
+        assertTrue(sheet.update(0, 0, "").isSuccess());
+        assertEquals("", sheet.valueAt(0, 0).getContent());
+        assertEquals("", sheet.formulaAt(0, 0).getContent());
+    }
+
+    @Test
+    public void testEmptyCellHeap() {
+        assertEmptyCell(ValueStorage.HEAP);
+    }
+
+    @Test
+    public void testEmptyCellOffHeap() {
+        assertEmptyCell(ValueStorage.OFF_HEAP);
+    }
+}
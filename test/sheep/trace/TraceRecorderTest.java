@@ -0,0 +1,56 @@
+package sheep.trace;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+import sheep.sheets.Sheet;
+import sheep.sheets.SheetBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TraceRecorderTest {
+    private Sheet sheet;
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(4, 2);
+    }
+
+    @Test
+    public void testRecordedCallsAreReadBackInOrder() throws IOException {
+        sheet.update(0, 0, "1");
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        try (TraceRecorder recorder = new TraceRecorder(sheet, sheet, trace)) {
+            assertTrue(recorder.update(1, 0, "A0 + 1").isSuccess());
+            assertEquals("2", recorder.valueAt(1, 0).getContent());
+            assertEquals("A0 + 1", recorder.formulaAt(1, 0).getContent());
+        }
+
+        try (TraceReader reader = new TraceReader(new ByteArrayInputStream(trace.toByteArray()))) {
+            assertEquals(4, reader.getRows());
+            assertEquals(2, reader.getColumns());
+            assertEquals(new TraceEvent(TraceEvent.Kind.SNAPSHOT, 0, 0, 0, "1"), reader.next());
+
+            TraceEvent update = reader.next();
+            assertEquals(TraceEvent.Kind.UPDATE, update.kind());
+            assertEquals("A0 + 1", update.input());
+            TraceEvent value = reader.next();
+            assertEquals(TraceEvent.Kind.VALUE, value.kind());
+            assertEquals(1, value.row());
+            assertTrue(value.nanos() >= update.nanos());
+            assertEquals(TraceEvent.Kind.FORMULA, reader.next().kind());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        new TraceReader(new ByteArrayInputStream("1,2,3\n".getBytes()));
+    }
+}
@@ -0,0 +1,47 @@
+package sheep.ui.textual;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+import sheep.sheets.Sheet;
+import sheep.sheets.SheetBuilder;
+
+import static org.junit.Assert.*;
+
+public class ColumnWidthsTest {
+    private Sheet sheet;
+    private ColumnWidths widths;
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(5, 2);
+        sheet.update(0, 0, "123456789");
+        sheet.update(1, 0, "12345");
+        sheet.update(2, 0, "123456789");
+        widths = new ColumnWidths(sheet);
+        assertTrue(widths.isIncremental());
+        assertEquals(9, widths.width(0));
+        assertEquals(0, widths.width(1));
+    }
+
+    @Test
+    public void testShrinkWidest() {
+        sheet.update(0, 0, "1");
+        assertEquals(9, widths.width(0));
+        sheet.update(2, 0, "12");
+        assertEquals(5, widths.width(0));
+        sheet.update(1, 0, "");
+        assertEquals(2, widths.width(0));
+        assertEquals(0, widths.width(1));
+    }
+
+    @Test
+    public void testShrinkThroughDependants() {
+        sheet.update(0, 1, "A1 * 100000");
+        assertEquals(10, widths.width(1));
+        sheet.update(1, 0, "1");
+        assertEquals(6, widths.width(1));
+    }
+}
@@ -0,0 +1,100 @@
+package sheep.ui.textual;
+
+import org.junit.Before;
+import org.junit.Test;
+import sheep.expression.CoreFactory;
+import sheep.parsing.SimpleParser;
+import sheep.sheets.Sheet;
+import sheep.sheets.SheetBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.Scanner;
+
+import static org.junit.Assert.*;
+
+public class TextUITest {
+    private Sheet sheet;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Before
+    public void setUp() {
+        CoreFactory factory = new CoreFactory();
+        sheet = new SheetBuilder(new SimpleParser(factory), factory.createEmpty()).empty(20, 4);
+    }
+
+    private TextUI textUI(String input) {
+        return new TextUI(sheet, sheet, new PrintStream(output, true), new Scanner(input));
+    }
+
+    private String runScript(String script) throws IOException {
+        textUI("").runScript(new BufferedReader(new StringReader(script)));
+        return output.toString();
+    }
+
+    @Test
+    public void testScript() throws IOException {
+        assertEquals("2\n", runScript("u A1 1\nu A2 A0 + 1\ns A2\n"));
+        assertEquals("A0 + 1", sheet.formulaAt(1, 0).getContent());
+    }
+
+    @Test
+    public void testScriptReportsErrors() throws IOException {
+        String results = runScript("u A1 A0\nu B1 5\nu B2 1 / 0\nu A1 7\nu C1 C0 + 1\ns B1\n");
+        assertEquals("Error: line 3: Division by zero\n"
+                + "Error: line 5: Circular reference\n"
+                + "5\n", results);
+        assertEquals("7", sheet.valueAt(0, 0).getContent());
+        assertEquals("", sheet.formulaAt(1, 1).getContent());
+        assertEquals("", sheet.formulaAt(0, 2).getContent());
+    }
+
+    @Test
+    public void testScriptRollsBackErrors() throws IOException {
+        String results = runScript("u A1 3\nu B1 A0 + 1\ns B1\nu A1 1 / 0\nu C1 A0 * 2\ns B1\ns C1\n");
+        assertEquals("4\n"
+                + "Error: line 4: Division by zero\n"
+                + "4\n6\n", results);
+        assertEquals("3", sheet.formulaAt(0, 0).getContent());
+        assertEquals("A0 * 2", sheet.formulaAt(0, 2).getContent());
+
+        // The same updates made interactively end in the same state.
+        Sheet script = sheet;
+        setUp();
+        textUI("u\nA1\n3\nu\nB1\nA0 + 1\nu\nA1\n1 / 0\nu\nC1\nA0 * 2\nq\n").render();
+        for (int column = 0; column < 3; column++) {
+            assertEquals(script.formulaAt(0, column).getContent(), sheet.formulaAt(0, column).getContent());
+            assertEquals(script.valueAt(0, column).getContent(), sheet.valueAt(0, column).getContent());
+        }
+    }
+
+    @Test
+    public void testScriptStagesForwardReferences() throws IOException {
+        // Interactively, the first update would be rejected as A1 is still empty.
+        assertEquals("6\n", runScript("u B1 A0 + 1\nu A1 5\ns B1\n"));
+    }
+
+    @Test
+    public void testViewportRedrawsChangedCells() {
+        TextUI ui = textUI("u\nA2\n5\nn\nq\n");
+        ui.useViewport(3, 2);
+        ui.render();
+        String[] frames = output.toString().split("action: ");
+        assertEquals(3, frames.length);
+
+        assertTrue(frames[0].startsWith("\u001b[H\u001b[2J"));
+        assertTrue(frames[0].contains("\u001b[2;1H1  |"));
+
+        // Only the updated cell is redrawn.
+        assertFalse(frames[1].contains("\u001b[2J"));
+        assertTrue(frames[1].contains("\u001b[3;5H 5          |"));
+        assertEquals(1, frames[1].split("H ", -1).length - 1);
+
+        // Scrolling a page redraws the row headers and the cells that changed.
+        assertTrue(frames[2].contains("\u001b[2;1H4  |"));
+        assertTrue(frames[2].contains("\u001b[3;5H            |"));
+    }
+}